@@ -34,6 +34,14 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    // JMH benchmarks, run with the "jmh" task
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+        runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+    }
+}
+
 dependencies {
     compileOnly("org.jetbrains:annotations:22.0.0")
 
@@ -43,6 +51,10 @@ dependencies {
     testImplementation("org.testfx:testfx-junit5:4.0.16-alpha")
     testImplementation("org.hamcrest:hamcrest:2.2")
     testImplementation("org.testfx:testfx-core:4.0.16-alpha")
+
+    "jmhCompileOnly"("org.jetbrains:annotations:22.0.0")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.33")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.33")
 }
 
 javafx {
@@ -108,6 +120,23 @@ tasks {
         jvmArgs("--enable-preview")
     }
 
+    register<JavaExec>("simulate") {
+        group = "application"
+        description = "Plays games headlessly with robots. Pass the simulator arguments with --args."
+
+        classpath = sourceSets.main.get().runtimeClasspath
+        mainClass.set("hk.ust.cse.comp3021.pa3.Simulator")
+    }
+
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks. Pass the JMH arguments (e.g. a benchmark regex) with --args."
+
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        systemProperty("puzzles.dir", rootProject.file("puzzles").absolutePath)
+    }
+
     create<Test>("testProvided") {
         useJUnitPlatform {
             includeTags("provided")
@@ -0,0 +1,133 @@
+package hk.ust.cse.comp3021.pa3.benchmark;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.util.GameStateSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Game boards used by the benchmarks.
+ *
+ * <p>
+ * A board is named either by the file name of a shipped puzzle (e.g. {@code 04-random.game}), which is looked up in
+ * the directory given by the {@code puzzles.dir} system property, or by {@code large-N}, which is a generated
+ * single-player {@code N x N} board.
+ * </p>
+ */
+final class BenchmarkBoards {
+
+    /**
+     * Prefix of the names of generated boards.
+     */
+    private static final String LARGE_PREFIX = "large-";
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * @param name The name of a puzzle file.
+     * @return The path of the puzzle file.
+     */
+    @NotNull
+    static Path puzzleFile(@NotNull final String name) {
+        return Path.of(System.getProperty("puzzles.dir", "puzzles"), name);
+    }
+
+    /**
+     * Creates the layers of a board.
+     *
+     * <p>
+     * A new array is returned on every call, so that the layers can be adopted by a new {@link GameBoard}.
+     * </p>
+     *
+     * @param name The name of the board.
+     * @return The initial layers of the board.
+     * @throws FileNotFoundException if the board is a puzzle file which does not exist.
+     */
+    @NotNull
+    static BoardLayers layersOf(@NotNull final String name) throws FileNotFoundException {
+        if (name.startsWith(LARGE_PREFIX)) {
+            final var size = Integer.parseInt(name.substring(LARGE_PREFIX.length()));
+            return generate(size, size, size);
+        }
+
+        return copyOf(GameStateSerializer.loadFrom(puzzleFile(name))[0].getGameBoard().getLayers());
+    }
+
+    /**
+     * @param layers The layers to copy.
+     * @return A copy of {@code layers} backed by a new array.
+     */
+    @NotNull
+    static BoardLayers copyOf(@NotNull final BoardLayers layers) {
+        final var flags = new byte[layers.size()];
+        for (int i = 0; i < flags.length; ++i) {
+            flags[i] = layers.get(i);
+        }
+        return new BoardLayers(layers.getNumRows(), layers.getNumCols(), flags);
+    }
+
+    /**
+     * Creates the game states of a board, one for each player.
+     *
+     * @param name The name of the board.
+     * @return The game states of a new instance of the board.
+     * @throws FileNotFoundException if the board is a puzzle file which does not exist.
+     */
+    @NotNull
+    static GameState[] gameStatesOf(@NotNull final String name) throws FileNotFoundException {
+        final var gameBoard = new GameBoard(layersOf(name));
+        return gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player))
+                .toArray(GameState[]::new);
+    }
+
+    /**
+     * Generates a random single-player board without walls.
+     *
+     * <p>
+     * The player starts at the top-left corner, and every cell of the leftmost column is a stop cell, so that every
+     * row can be reached and the board always passes the reachability validation of {@link GameBoard}.
+     * </p>
+     *
+     * @param numRows The number of rows.
+     * @param numCols The number of columns.
+     * @param seed    The seed of the random number generator.
+     * @return The layers of the generated board.
+     */
+    @NotNull
+    private static BoardLayers generate(final int numRows, final int numCols, final long seed) {
+        final var random = new Random(seed);
+        final var flags = new byte[numRows * numCols];
+
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                final var roll = random.nextInt(100);
+                final byte cell;
+                if (c == 0) {
+                    cell = BoardLayers.STOP;
+                } else if (roll < 10) {
+                    cell = BoardLayers.GEM;
+                } else if (roll < 13) {
+                    cell = BoardLayers.MINE;
+                } else if (roll < 15) {
+                    cell = BoardLayers.EXTRA_LIFE;
+                } else if (roll < 20) {
+                    cell = BoardLayers.STOP;
+                } else {
+                    cell = 0;
+                }
+                flags[r * numCols + c] = cell;
+            }
+        }
+        flags[0] = BoardLayers.STOP | BoardLayers.PLAYER;
+        flags[numCols - 1] = BoardLayers.GEM;
+
+        return new BoardLayers(numRows, numCols, flags);
+    }
+}
@@ -0,0 +1,36 @@
+package hk.ust.cse.comp3021.pa3.benchmark;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameBoard} construction, which includes validating that all gems are reachable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardBenchmark {
+
+    @Param({"01-simple.game", "04-random.game", "05-extra-life.multiplayer.game", "large-100", "large-500"})
+    public String board;
+
+    private BoardLayers layers;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        layers = BenchmarkBoards.layersOf(board);
+    }
+
+    @Benchmark
+    public GameBoard construct() {
+        // The layers are adopted by the game board, so each instance needs its own copy
+        return new GameBoard(BenchmarkBoards.copyOf(layers));
+    }
+}
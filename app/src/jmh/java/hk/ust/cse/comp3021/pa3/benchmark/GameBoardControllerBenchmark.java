@@ -0,0 +1,65 @@
+package hk.ust.cse.comp3021.pa3.benchmark;
+
+import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileNotFoundException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameBoardController} on single-player boards.
+ *
+ * <p>
+ * Each move made by {@link #makeAndUndoMove()} is undone immediately, so the game board stays in its initial state
+ * throughout the benchmarks.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardControllerBenchmark {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Param({"01-simple.game", "04-random.game", "large-100", "large-500"})
+    public String board;
+
+    private GameState gameState;
+
+    private GameBoardController controller;
+
+    private int nextDirection = 0;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        gameState = BenchmarkBoards.gameStatesOf(board)[0];
+        controller = gameState.getGameBoardController();
+    }
+
+    @Benchmark
+    public void tryMove(final Blackhole blackhole) {
+        final var player = gameState.getPlayer();
+        final var position = Objects.requireNonNull(player.getOwner()).getPosition();
+        for (final var direction : DIRECTIONS) {
+            blackhole.consume(controller.tryMove(position, direction, player.getId()));
+        }
+    }
+
+    @Benchmark
+    public MoveResult makeAndUndoMove() {
+        final var direction = DIRECTIONS[nextDirection++ % DIRECTIONS.length];
+        final var result = controller.makeMove(direction);
+        if (result instanceof MoveResult.Valid.Alive) {
+            controller.undoMove(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package hk.ust.cse.comp3021.pa3.benchmark;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameController#processMove(Direction, int)}, with the players taking turns to move in a fixed
+ * cycle of directions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameControllerBenchmark {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Param({"01-simple.game", "04-random.game", "05-extra-life.multiplayer.game", "large-100", "large-500"})
+    public String board;
+
+    private GameController controller;
+
+    private int[] playerIds;
+
+    private int nextMove = 0;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws FileNotFoundException {
+        final var gameStates = BenchmarkBoards.gameStatesOf(board);
+        controller = new GameController(gameStates);
+        playerIds = new int[gameStates.length];
+        for (int i = 0; i < gameStates.length; ++i) {
+            playerIds[i] = gameStates[i].getPlayer().getId();
+        }
+    }
+
+    @Benchmark
+    public MoveResult processMove() {
+        final var move = nextMove++;
+        final var direction = DIRECTIONS[(move / playerIds.length) % DIRECTIONS.length];
+        return controller.processMove(direction, playerIds[move % playerIds.length]);
+    }
+}
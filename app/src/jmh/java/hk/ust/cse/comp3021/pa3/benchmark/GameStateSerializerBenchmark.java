@@ -0,0 +1,70 @@
+package hk.ust.cse.comp3021.pa3.benchmark;
+
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.util.GameStateSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameStateSerializer}.
+ *
+ * <p>
+ * Each board is first written to a temporary file, so that generated boards can be loaded in the same way as the
+ * shipped puzzles.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateSerializerBenchmark {
+
+    @Param({"01-simple.game", "04-random.game", "05-extra-life.multiplayer.game", "large-100", "large-500"})
+    public String board;
+
+    private Path directory;
+
+    private Path inputFile;
+
+    private Path outputFile;
+
+    private GameState gameState;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("benchmark");
+        inputFile = directory.resolve("input.game");
+        outputFile = directory.resolve("output.game");
+
+        gameState = BenchmarkBoards.gameStatesOf(board)[0];
+        GameStateSerializer.writeTo(gameState, inputFile);
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteOutputFile() throws IOException {
+        Files.deleteIfExists(outputFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public GameState[] loadFrom() throws IOException {
+        return GameStateSerializer.loadFrom(inputFile);
+    }
+
+    @Benchmark
+    public Path writeTo() throws IOException {
+        return GameStateSerializer.writeTo(gameState, outputFile);
+    }
+}
@@ -0,0 +1,323 @@
+package hk.ust.cse.comp3021.pa3;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Player;
+import hk.ust.cse.comp3021.pa3.util.GameStateSerializer;
+import hk.ust.cse.comp3021.pa3.util.Robot;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless entry-point which plays games with robots only, without any UI.
+ *
+ * <p>
+ * Usage: {@code Simulator [--games N] [--strategies S1,S2,...] [--max-moves M] [--threads T] FILE...}
+ * </p>
+ * <ul>
+ *     <li>{@code --games}: The number of games to play for each file. Defaults to {@code 1}.</li>
+ *     <li>{@code --strategies}: The {@link Robot.Strategy} of each player, assigned to the players of each game in
+ *     order and repeated if there are more players than strategies. Defaults to {@code Smart}.</li>
+ *     <li>{@code --max-moves}: The maximum number of moves (of all players) in each game, after which the game is
+ *     considered unfinished. Defaults to {@code 10000}.</li>
+ *     <li>{@code --threads}: The number of games to play in parallel. Defaults to the number of available
+ *     processors.</li>
+ * </ul>
+ * <p>
+ * Games are played on a fixed-size thread pool, with the robots of each game taking turns on the thread playing the
+ * game. The report is written to the standard output in CSV format, with one row for each player of each game.
+ * </p>
+ */
+public final class Simulator {
+
+    /**
+     * Header of the CSV report.
+     */
+    static final String CSV_HEADER = "file,game,player,strategy,score,moves,deaths,won,finished,wall_time_ms";
+
+    /**
+     * The result of a single player in a simulated game.
+     *
+     * @param playerID  The id of the player.
+     * @param strategy  The strategy of the robot controlling the player.
+     * @param score     The final score of the player.
+     * @param numMoves  The number of valid moves made by the player.
+     * @param numDeaths The number of deaths of the player.
+     * @param won       Whether the player is one of the winners.
+     */
+    record PlayerReport(int playerID, @NotNull Robot.Strategy strategy, int score, int numMoves, int numDeaths,
+                        boolean won) {
+    }
+
+    /**
+     * The result of a single simulated game.
+     *
+     * @param file       The file the game is loaded from.
+     * @param game       The index of the game among the games played for {@code file}.
+     * @param finished   Whether the game has finished before reaching the maximum number of moves.
+     * @param wallTimeMs The wall time taken to play the game, in milliseconds.
+     * @param players    The results of each player.
+     */
+    record GameReport(@NotNull Path file, int game, boolean finished, long wallTimeMs,
+                      @NotNull List<PlayerReport> players) {
+    }
+
+    /**
+     * Command-line usage of the simulator.
+     */
+    static final String USAGE =
+            "Usage: Simulator [--games N] [--strategies S1,S2,...] [--max-moves M] [--threads T] FILE...";
+
+    /**
+     * The options parsed from the command-line.
+     *
+     * @param files      The files to load games from.
+     * @param numGames   The number of games to play for each file.
+     * @param strategies The strategies of the players.
+     * @param maxMoves   The maximum number of moves in each game.
+     * @param numThreads The number of games to play in parallel.
+     */
+    record Options(@NotNull List<Path> files, int numGames, @NotNull List<Robot.Strategy> strategies, int maxMoves,
+                   int numThreads) {
+    }
+
+    private Simulator() {
+    }
+
+    /**
+     * Main entry-point.
+     *
+     * @param args Arguments from the command-line.
+     * @throws InterruptedException if the main thread is interrupted while waiting for the games.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final Options options;
+        try {
+            options = parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        run(options.files(), options.numGames(), options.strategies(), options.maxMoves(), options.numThreads(),
+                System.out);
+    }
+
+    /**
+     * Parses the command-line arguments.
+     *
+     * @param args Arguments from the command-line.
+     * @return The parsed options.
+     * @throws IllegalArgumentException if an option is unknown or has a missing or invalid value, or if no file is
+     *                                  given.
+     */
+    @NotNull
+    static Options parseOptions(@NotNull final String[] args) {
+        var numGames = 1;
+        var strategies = List.of(Robot.Strategy.Smart);
+        var maxMoves = 10000;
+        var numThreads = Runtime.getRuntime().availableProcessors();
+        final var files = new ArrayList<Path>();
+
+        for (int i = 0; i < args.length; ++i) {
+            final var arg = args[i];
+            if (!arg.startsWith("--")) {
+                files.add(Path.of(arg));
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+
+            final var value = args[++i];
+            switch (arg) {
+                case "--games" -> numGames = parseCount(arg, value, 1);
+                case "--strategies" -> strategies = parseStrategies(value);
+                case "--max-moves" -> maxMoves = parseCount(arg, value, 0);
+                case "--threads" -> numThreads = parseCount(arg, value, 1);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No file is given");
+        }
+        return new Options(files, numGames, strategies, maxMoves, numThreads);
+    }
+
+    /**
+     * @param option The option the value is given for.
+     * @param value  The value of the option.
+     * @param min    The minimum allowed value.
+     * @return The value as an integer.
+     * @throws IllegalArgumentException if {@code value} is not an integer, or is less than {@code min}.
+     */
+    private static int parseCount(@NotNull final String option, @NotNull final String value, final int min) {
+        final int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value, e);
+        }
+        if (count < min) {
+            throw new IllegalArgumentException("Value for " + option + " must be at least " + min + ": " + value);
+        }
+        return count;
+    }
+
+    /**
+     * @param value A comma-separated list of strategy names.
+     * @return The strategies in the list.
+     * @throws IllegalArgumentException if any name is not a {@link Robot.Strategy}.
+     */
+    @NotNull
+    private static List<Robot.Strategy> parseStrategies(@NotNull final String value) {
+        final var strategies = new ArrayList<Robot.Strategy>();
+        for (final var name : value.split(",", -1)) {
+            try {
+                strategies.add(Robot.Strategy.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown strategy: " + name, e);
+            }
+        }
+        return List.copyOf(strategies);
+    }
+
+    /**
+     * Plays games for each file in parallel, and writes the report of each game in order.
+     *
+     * @param files      The files to load games from.
+     * @param numGames   The number of games to play for each file.
+     * @param strategies The strategies of the players.
+     * @param maxMoves   The maximum number of moves in each game.
+     * @param numThreads The number of games to play in parallel.
+     * @param out        The stream to write the report to.
+     * @throws InterruptedException if the current thread is interrupted while waiting for the games.
+     */
+    static void run(@NotNull final List<Path> files, final int numGames, @NotNull final List<Robot.Strategy> strategies,
+                    final int maxMoves, final int numThreads, @NotNull final PrintStream out)
+            throws InterruptedException {
+        final var executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final var reports = new ArrayList<Future<GameReport>>();
+            for (final var file : files) {
+                for (int game = 0; game < numGames; ++game) {
+                    final var index = game;
+                    final Callable<GameReport> task = () -> simulate(file, index, strategies, maxMoves);
+                    reports.add(executor.submit(task));
+                }
+            }
+
+            out.println(CSV_HEADER);
+            for (final var report : reports) {
+                try {
+                    writeReport(report.get(), out);
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a single game loaded from a file.
+     *
+     * @param file       The file to load the game from.
+     * @param game       The index of the game among the games played for {@code file}.
+     * @param strategies The strategies of the players.
+     * @param maxMoves   The maximum number of moves in the game.
+     * @return The report of the game.
+     * @throws FileNotFoundException if {@code file} does not exist.
+     */
+    @NotNull
+    static GameReport simulate(@NotNull final Path file, final int game, @NotNull final List<Robot.Strategy> strategies,
+                               final int maxMoves) throws FileNotFoundException {
+        Objects.requireNonNull(file);
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+
+        final var startTime = System.nanoTime();
+
+        final var gameStates = GameStateSerializer.loadFrom(file);
+        final var gameController = new GameController(gameStates);
+        final var robots = new Robot[gameStates.length];
+        for (int i = 0; i < gameStates.length; ++i) {
+            robots[i] = new Robot(gameStates[i], strategies.get(i % strategies.size()));
+        }
+
+        var winners = gameController.getWinners();
+        var numMoves = 0;
+        while (winners == null && numMoves < maxMoves) {
+            var moved = false;
+            for (int i = 0; i < gameStates.length && winners == null; ++i) {
+                final var playerID = gameStates[i].getPlayer().getId();
+                final var result = new MoveResult[1];
+                robots[i].makeMove(direction -> result[0] = gameController.processMove(direction, playerID));
+
+                if (result[0] != null) {
+                    moved = true;
+                    numMoves++;
+                    winners = gameController.getWinners();
+                }
+            }
+
+            // None of the robots can move
+            if (!moved) {
+                break;
+            }
+        }
+
+        final var wallTimeMs = (System.nanoTime() - startTime) / 1_000_000;
+        final var winnerList = winners == null ? List.<Player>of() : List.of(winners);
+        final var players = new ArrayList<PlayerReport>();
+        for (int i = 0; i < gameStates.length; ++i) {
+            final var gameState = gameStates[i];
+            players.add(new PlayerReport(
+                    gameState.getPlayer().getId(),
+                    strategies.get(i % strategies.size()),
+                    gameState.getScore(),
+                    gameState.getNumMoves(),
+                    gameState.getNumDeaths(),
+                    winnerList.contains(gameState.getPlayer())
+            ));
+        }
+        return new GameReport(file, game, winners != null, wallTimeMs, players);
+    }
+
+    /**
+     * Writes the rows of a game to the CSV report.
+     *
+     * @param report The report of the game.
+     * @param out    The stream to write the report to.
+     */
+    private static void writeReport(@NotNull final GameReport report, @NotNull final PrintStream out) {
+        for (final var player : report.players()) {
+            out.printf("%s,%d,%d,%s,%d,%d,%d,%b,%b,%d%n",
+                    report.file(),
+                    report.game(),
+                    player.playerID(),
+                    player.strategy(),
+                    player.score(),
+                    player.numMoves(),
+                    player.numDeaths(),
+                    player.won(),
+                    report.finished(),
+                    report.wallTimeMs());
+        }
+    }
+}
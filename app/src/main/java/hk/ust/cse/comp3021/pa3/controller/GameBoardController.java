@@ -5,6 +5,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -20,24 +21,62 @@ public class GameBoardController {
     @NotNull
     private final GameBoard gameBoard;
 
+    /**
+     * The precomputed {@link SlideTable} of {@link GameBoardController#gameBoard} for resolving moves, or {@code null}
+     * if moves should be resolved by walking the game board cell-by-cell.
+     */
+    @Nullable
+    private final SlideTable slideTable;
+
     /**
      * Creates an instance.
      *
      * @param gameBoard The instance of {@link GameBoard} to control.
      */
     public GameBoardController(@NotNull final GameBoard gameBoard) {
+        this(gameBoard, null);
+    }
+
+    /**
+     * Creates an instance which resolves moves using a precomputed {@link SlideTable}.
+     *
+     * @param gameBoard  The instance of {@link GameBoard} to control.
+     * @param slideTable The slide table of {@code gameBoard}, or {@code null} to resolve moves without a slide table.
+     * @throws IllegalArgumentException if {@code slideTable} is not built from {@code gameBoard}.
+     */
+    public GameBoardController(@NotNull final GameBoard gameBoard, @Nullable final SlideTable slideTable) {
         this.gameBoard = Objects.requireNonNull(gameBoard);
+        if (slideTable != null && slideTable.getGameBoard() != gameBoard) {
+            throw new IllegalArgumentException();
+        }
+        this.slideTable = slideTable;
     }
 
     /**
-     * TODO Kick the player out of the game, i.e., remove it from the game board.
+     * @return The game board controlled by this instance.
+     */
+    @NotNull
+    public GameBoard getGameBoard() {
+        return gameBoard;
+    }
+
+    /**
+     * Kick the player out of the game, i.e., remove it from the game board.
      * This method should be called when the player loses, i.e., has no more lives.
-     * TODO modify this method if you need to do thread synchronization.
+     * This method holds the lock of the game board while mutating it.
      *
      * @param playerId The id of the player to kick out.
      */
     public void kickOut(int playerId) {
-
+        gameBoard.getLock().lock();
+        try {
+            final var playerOwner = gameBoard.getPlayer(playerId).getOwner();
+            if (playerOwner != null) {
+                playerOwner.setEntity(null);
+            }
+        } finally {
+            gameBoard.getLock().unlock();
+        }
     }
 
     /**
@@ -59,7 +98,7 @@ public class GameBoardController {
 
     /**
      * Moves the player in the given direction.
-     * TODO modify this method if you need to do thread synchronization.
+     * This method holds the lock of the game board, so that moves on the same game board are linearizable.
      *
      * <p>
      * You should ensure that the game board is only mutated if the move is valid and results in the player still being
@@ -74,35 +113,40 @@ public class GameBoardController {
     public MoveResult makeMove(@NotNull final Direction direction, int playerID) {
         Objects.requireNonNull(direction);
 
+        gameBoard.getLock().lock();
+        try {
+            var playerOwner = gameBoard.getPlayer(playerID).getOwner();
+            if (playerOwner == null) {
+                return null;
+            }
 
-        var playerOwner = gameBoard.getPlayer(playerID).getOwner();
-        if (playerOwner == null) {
-            return null;
-        }
+            final var origPosition = playerOwner.getPosition();
+            final var tryMoveResult = tryMoveLocked(origPosition, direction, playerID);
+            if (tryMoveResult instanceof MoveResult.Valid.Alive alive) {
+                // Clear all outstanding entities that the player would've picked up
+                for (@NotNull final var gemPos : alive.collectedGems) {
+                    gameBoard.getEntityCell(gemPos).setEntity(null);
+                }
+                for (@NotNull final var extraLifePos : alive.collectedExtraLives) {
+                    gameBoard.getEntityCell(extraLifePos).setEntity(null);
+                }
+                gameBoard.addCollected(playerID, alive.collectedGems.size(), alive.collectedExtraLives.size());
 
-        final var origPosition = playerOwner.getPosition();
-        final var tryMoveResult = tryMove(origPosition, direction, playerID);
-        if (tryMoveResult instanceof MoveResult.Valid.Alive alive) {
-            // Clear all outstanding entities that the player would've picked up
-            for (@NotNull final var gemPos : alive.collectedGems) {
-                gameBoard.getEntityCell(gemPos).setEntity(null);
-            }
-            for (@NotNull final var extraLifePos : alive.collectedExtraLives) {
-                gameBoard.getEntityCell(extraLifePos).setEntity(null);
+                // Move the player directly over
+                assert alive.newPosition != null;
+                gameBoard.getEntityCell(alive.newPosition).setEntity(gameBoard.getPlayer(playerID));
             }
 
-            // Move the player directly over
-            assert alive.newPosition != null;
-            gameBoard.getEntityCell(alive.newPosition).setEntity(gameBoard.getPlayer(playerID));
+            return tryMoveResult;
+        } finally {
+            gameBoard.getLock().unlock();
         }
-
-        return tryMoveResult;
     }
 
 
     /**
      * Undoes a move by reverting all changes performed by the specified move.
-     * TODO modify this method if you need to do synchronization.
+     * This method holds the lock of the game board while mutating it.
      *
      * <p>
      * Hint: Undoing a move is effectively the same as reversing everything you have done to make a move.
@@ -121,20 +165,30 @@ public class GameBoardController {
             return;
         }
 
-        // Effectively makeMove, but reversed
-        gameBoard.getEntityCell(aliveState.origPosition).setEntity(gameBoard.getPlayer());
+        gameBoard.getLock().lock();
+        try {
+            // Effectively makeMove, but reversed
+            gameBoard.getEntityCell(aliveState.origPosition).setEntity(gameBoard.getPlayer());
 
-        for (@NotNull final var gemPos : aliveState.collectedGems) {
-            gameBoard.getEntityCell(gemPos).setEntity(new Gem());
-        }
-        for (@NotNull final var extraLifePos : aliveState.collectedExtraLives) {
-            gameBoard.getEntityCell(extraLifePos).setEntity(new ExtraLife());
+            for (@NotNull final var gemPos : aliveState.collectedGems) {
+                gameBoard.getEntityCell(gemPos).setEntity(new Gem());
+            }
+            for (@NotNull final var extraLifePos : aliveState.collectedExtraLives) {
+                gameBoard.getEntityCell(extraLifePos).setEntity(new ExtraLife());
+            }
+            gameBoard.addCollected(
+                    gameBoard.getPlayer().getId(),
+                    -aliveState.collectedGems.size(),
+                    -aliveState.collectedExtraLives.size()
+            );
+        } finally {
+            gameBoard.getLock().unlock();
         }
     }
 
     /**
      * Tries to move the player from a position in the specified direction as far as possible.
-     * TODO modify this method if you need to do thread synchronization.
+     * This method holds the lock of the game board, so that the result reflects a consistent state of the game board.
      *
      * <p>
      * Note that this method does <b>NOT</b> actually move the player. It just tries to move the player and return
@@ -151,73 +205,196 @@ public class GameBoardController {
         Objects.requireNonNull(position);
         Objects.requireNonNull(direction);
 
+        gameBoard.getLock().lock();
+        try {
+            return tryMoveLocked(position, direction, playerID);
+        } finally {
+            gameBoard.getLock().unlock();
+        }
+    }
+
+    /**
+     * Probes the outcome of moving the player from a position in the specified direction, without allocating any
+     * object. This method holds the lock of the game board, so that the result reflects a consistent state of the game
+     * board.
+     *
+     * <p>
+     * This is the same as {@link GameBoardController#tryMove(Position, Direction, int)}, except that the outcome is
+     * returned as a packed code which can be decoded by {@link MoveProbe}, and the positions of the collected entities
+     * are not reported. It is intended for callers which only inspect the outcome of a move, e.g. robots probing all
+     * directions before committing to one with {@link GameBoardController#makeMove(Direction, int)}.
+     * </p>
+     *
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player to move.
+     * @return The packed probe code of the move.
+     */
+    public long probeMove(@NotNull final Position position, @NotNull final Direction direction, final int playerID) {
+        Objects.requireNonNull(position);
+        Objects.requireNonNull(direction);
+
+        gameBoard.getLock().lock();
+        try {
+            return resolveMove(gameBoard.indexOf(position), direction, playerID, null, null);
+        } finally {
+            gameBoard.getLock().unlock();
+        }
+    }
+
+    /**
+     * Same as {@link GameBoardController#tryMove(Position, Direction, int)}, but assumes the lock of the game board is
+     * held by the caller.
+     */
+    @NotNull
+    private MoveResult tryMoveLocked(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
         final var collectedGems = new ArrayList<Position>();
         final var collectedExtraLives = new ArrayList<Position>();
-        Position lastValidPosition = position;
+        final var code = resolveMove(
+                gameBoard.indexOf(position), direction, playerID, collectedGems, collectedExtraLives);
+
+        return switch (MoveProbe.kindOf(code)) {
+            case MoveProbe.ALIVE -> new MoveResult.Valid.Alive(
+                    gameBoard.getPosition(MoveProbe.indexOf(code)),
+                    position,
+                    collectedGems,
+                    collectedExtraLives
+            );
+            case MoveProbe.DEAD -> new MoveResult.Valid.Dead(position, gameBoard.getPosition(MoveProbe.indexOf(code)));
+            default -> new MoveResult.Invalid(position);
+        };
+    }
+
+    /**
+     * Resolves a move, assuming the lock of the game board is held by the caller.
+     *
+     * @param start               Row-major index of the original cell of the player.
+     * @param direction           The direction to move the player in.
+     * @param playerID            The id of the player to move.
+     * @param collectedGems       The list to add the positions of the collected gems to, or {@code null} if the
+     *                            positions are not needed.
+     * @param collectedExtraLives The list to add the positions of the collected extra lives to, or {@code null} if the
+     *                            positions are not needed.
+     * @return The packed probe code of the move.
+     */
+    private long resolveMove(
+            final int start,
+            @NotNull final Direction direction,
+            final int playerID,
+            @Nullable final List<Position> collectedGems,
+            @Nullable final List<Position> collectedExtraLives
+    ) {
+        final var layers = gameBoard.getLayers();
+        if (slideTable != null && !layers.has(start, BoardLayers.WALL)) {
+            return resolveMoveWithSlideTable(
+                    slideTable, start, direction, playerID, collectedGems, collectedExtraLives);
+        }
+
+        var numGems = 0;
+        var numExtraLives = 0;
+        var lastValidIndex = start;
         do {
-            final Position newPosition = offsetPosition(lastValidPosition, direction);
-            if (newPosition == null) {
+            final var newIndex = layers.offsetBy(lastValidIndex, direction);
+            if (newIndex == BoardLayers.NONE || layers.has(newIndex, BoardLayers.WALL)) {
                 break;
             }
+            final var flags = layers.get(newIndex);
 
             // in multiplayer mode, we consider other players as a wall.
-            if (gameBoard.getCell(newPosition) instanceof EntityCell entityCell)
-                if (entityCell.getEntity() instanceof Player otherPlayer)
+            if ((flags & BoardLayers.PLAYER) != 0)
+                if (gameBoard.getEntityCell(newIndex).getEntity() instanceof Player otherPlayer)
                     if (otherPlayer.getId() != playerID)
                         break;
 
+            lastValidIndex = newIndex;
 
-            lastValidPosition = newPosition;
-
-            if (gameBoard.getCell(newPosition) instanceof StopCell) {
+            if ((flags & BoardLayers.STOP) != 0) {
                 break;
             }
 
-            if (gameBoard.getCell(newPosition) instanceof EntityCell entityCell) {
-                if (entityCell.getEntity() instanceof Mine) {
-                    return new MoveResult.Valid.Dead(position, newPosition);
+            if ((flags & BoardLayers.MINE) != 0) {
+                return MoveProbe.pack(MoveProbe.DEAD, newIndex, 0, 0);
+            }
+            if ((flags & BoardLayers.GEM) != 0) {
+                numGems++;
+                if (collectedGems != null) {
+                    collectedGems.add(gameBoard.getPosition(newIndex));
                 }
-
-                if (entityCell.getEntity() instanceof Gem) {
-                    collectedGems.add(newPosition);
-                } else if (entityCell.getEntity() instanceof ExtraLife) {
-                    collectedExtraLives.add(newPosition);
+            } else if ((flags & BoardLayers.EXTRA_LIFE) != 0) {
+                numExtraLives++;
+                if (collectedExtraLives != null) {
+                    collectedExtraLives.add(gameBoard.getPosition(newIndex));
                 }
             }
         } while (true);
 
-        if (lastValidPosition.equals(position)) {
-            return new MoveResult.Invalid(position);
+        if (lastValidIndex == start) {
+            return MoveProbe.pack(MoveProbe.INVALID, start, 0, 0);
         }
-
-        return new MoveResult.Valid.Alive(lastValidPosition, position, collectedGems, collectedExtraLives);
+        return MoveProbe.pack(MoveProbe.ALIVE, lastValidIndex, numGems, numExtraLives);
     }
 
     /**
-     * Offsets the {@link Position} in the specified {@link Direction} by one step.
+     * Same as {@link GameBoardController#resolveMove(int, Direction, int, List, List)}, but only visits the entities
+     * along the path of the move using the precomputed {@link SlideTable}.
      *
-     * @param position  The original position.
-     * @param direction The direction to offset.
-     * @return The given position offset by one in the specified direction. If the new position is outside of the game
-     * board, or contains a non-{@link EntityCell}, returns {@code null}.
+     * @param slideTable          The slide table of the game board.
+     * @param start               Row-major index of the original cell of the player.
+     * @param direction           The direction to move the player in.
+     * @param playerID            The id of the player to move.
+     * @param collectedGems       The list to add the positions of the collected gems to, or {@code null}.
+     * @param collectedExtraLives The list to add the positions of the collected extra lives to, or {@code null}.
+     * @return The packed probe code of the move.
      */
-    @Nullable
-    private Position offsetPosition(
-            @NotNull final Position position,
-            @NotNull final Direction direction
+    private long resolveMoveWithSlideTable(
+            @NotNull final SlideTable slideTable,
+            final int start,
+            @NotNull final Direction direction,
+            final int playerID,
+            @Nullable final List<Position> collectedGems,
+            @Nullable final List<Position> collectedExtraLives
     ) {
-        Objects.requireNonNull(position);
-        Objects.requireNonNull(direction);
+        final var layers = gameBoard.getLayers();
+        final var end = slideTable.getEnd(start, direction);
+        final var delta = direction.getRowOffset() * layers.getNumCols() + direction.getColOffset();
+
+        var numGems = 0;
+        var numExtraLives = 0;
+        var lastValidIndex = end;
+        for (int k = slideTable.getNextEntity(start, direction);
+             k != SlideTable.NONE && Math.abs(k - start) <= Math.abs(end - start);
+             k = slideTable.getNextEntity(k, direction)) {
+            final var flags = layers.get(k);
 
-        final var newPos = position.offsetByOrNull(direction.getOffset(), gameBoard.getNumRows(), gameBoard.getNumCols());
+            // in multiplayer mode, we consider other players as a wall.
+            if ((flags & BoardLayers.PLAYER) != 0) {
+                if (gameBoard.getEntityCell(k).getEntity() instanceof Player otherPlayer
+                        && otherPlayer.getId() != playerID) {
+                    lastValidIndex = k - delta;
+                    break;
+                }
+                continue;
+            }
 
-        if (newPos == null) {
-            return null;
-        }
-        if (!(gameBoard.getCell(newPos) instanceof EntityCell)) {
-            return null;
+            if ((flags & BoardLayers.MINE) != 0) {
+                return MoveProbe.pack(MoveProbe.DEAD, k, 0, 0);
+            }
+            if ((flags & BoardLayers.GEM) != 0) {
+                numGems++;
+                if (collectedGems != null) {
+                    collectedGems.add(gameBoard.getPosition(k));
+                }
+            } else if ((flags & BoardLayers.EXTRA_LIFE) != 0) {
+                numExtraLives++;
+                if (collectedExtraLives != null) {
+                    collectedExtraLives.add(gameBoard.getPosition(k));
+                }
+            }
         }
 
-        return newPos;
+        if (lastValidIndex == start) {
+            return MoveProbe.pack(MoveProbe.INVALID, start, 0, 0);
+        }
+        return MoveProbe.pack(MoveProbe.ALIVE, lastValidIndex, numGems, numExtraLives);
     }
 }
@@ -1,7 +1,6 @@
 package hk.ust.cse.comp3021.pa3.controller;
 
 import hk.ust.cse.comp3021.pa3.model.*;
-import hk.ust.cse.comp3021.pa3.util.NotImplementedException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -25,6 +24,12 @@ public class GameController {
     @NotNull
     private final Map<Integer, GameState> gameStates;
 
+    /**
+     * The game board shared by all game states.
+     */
+    @NotNull
+    private final GameBoard gameBoard;
+
     /**
      * Gets the current {@link GameState} controlled by the controller if the game is single player mode.
      *
@@ -67,8 +72,7 @@ public class GameController {
      */
     public GameBoard getGameBoard() {
         // Although there are multiple game state instance, there is only one game board instance that is shared by all game states.
-        assert getGameStates().length > 0;
-        return getGameStates()[0].getGameBoard();
+        return gameBoard;
     }
 
     public Player[] getPlayers() {
@@ -92,6 +96,22 @@ public class GameController {
                 gameStates) {
             this.gameStates.put(s.getPlayer().getId(), s);
         }
+        this.gameBoard = gameStates[0].getGameBoard();
+    }
+
+    /**
+     * Makes the moves of all players resolve with a shared {@link SlideTable} of the game board.
+     *
+     * <p>
+     * The slide table only visits the entities along a slide instead of every cell it passes, at the cost of memory
+     * many times the size of the game board itself. By default, moves are resolved cell-by-cell without a slide table.
+     * </p>
+     */
+    public void useSlideTable() {
+        final var gameBoardController = new GameBoardController(gameBoard, new SlideTable(gameBoard));
+        for (final var gameState : gameStates.values()) {
+            gameState.setGameBoardController(gameBoardController);
+        }
     }
 
     /**
@@ -106,7 +126,8 @@ public class GameController {
 
     /**
      * Processes a Move action performed by the player.
-     * TODO modify this method if you need to do thread synchronization.
+     * The lock of the game board is held throughout, so that the move and the updates to the {@link GameState} of the
+     * player appear atomic to other threads processing moves on the same game board.
      *
      * @param direction The direction the player wants to move to.
      * @param playerID  ID of the player to move.
@@ -115,30 +136,36 @@ public class GameController {
     public MoveResult processMove(@NotNull final Direction direction, int playerID) {
         Objects.requireNonNull(direction);
 
-        var result = this.getGameState(playerID).getGameBoardController().makeMove(direction, playerID);
-        if (result == null) {
-            return null;
-        }
+        final var lock = getGameBoard().getLock();
+        lock.lock();
+        try {
+            var result = this.getGameState(playerID).getGameBoardController().makeMove(direction, playerID);
+            if (result == null) {
+                return null;
+            }
 
-        var gameState = this.getGameState(playerID);
-        if (result instanceof MoveResult.Valid v) {
-            gameState.incrementNumMoves();
-
-            if (v instanceof MoveResult.Valid.Alive va) {
-                gameState.increaseNumLives(va.collectedExtraLives.size());
-                gameState.increaseNumGotGems(va.collectedGems.size());
-                gameState.getMoveStack().push(va);
-            } else if (v instanceof MoveResult.Valid.Dead) {
-                gameState.incrementNumDeaths();
-                var livesLeft = gameState.decrementNumLives();
-                if (livesLeft == 0) {
-                    this.getGameState(playerID).getGameBoardController().kickOut(playerID);
-                    result = new MoveResult.Valid.KickedOut(v.origPosition);
+            var gameState = this.getGameState(playerID);
+            if (result instanceof MoveResult.Valid v) {
+                gameState.incrementNumMoves();
+
+                if (v instanceof MoveResult.Valid.Alive va) {
+                    gameState.increaseNumLives(va.collectedExtraLives.size());
+                    gameState.increaseNumGotGems(va.collectedGems.size());
+                    gameState.getMoveStack().push(va);
+                } else if (v instanceof MoveResult.Valid.Dead) {
+                    gameState.incrementNumDeaths();
+                    var livesLeft = gameState.decrementNumLives();
+                    if (livesLeft == 0) {
+                        this.getGameState(playerID).getGameBoardController().kickOut(playerID);
+                        result = new MoveResult.Valid.KickedOut(v.origPosition);
+                    }
                 }
             }
-        }
 
-        return result;
+            return result;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -153,30 +180,71 @@ public class GameController {
             throw new IllegalCallerException();
         }
 
-        if (this.getGameState().getMoveStack().isEmpty()) {
-            return false;
-        }
+        final var lock = getGameBoard().getLock();
+        lock.lock();
+        try {
+            if (this.getGameState().getMoveStack().isEmpty()) {
+                return false;
+            }
 
-        final var prevState = this.getGameState().getMoveStack().pop();
-        // This condition is impossible under this implementation, but just do it anyways.
-        if (!(prevState instanceof final MoveResult.Valid.Alive aliveState)) {
-            return false;
-        }
+            final var prevState = this.getGameState().getMoveStack().pop();
+            // This condition is impossible under this implementation, but just do it anyways.
+            if (!(prevState instanceof final MoveResult.Valid.Alive aliveState)) {
+                return false;
+            }
 
-        this.getGameState().decreaseNumLives(aliveState.collectedExtraLives.size());
+            this.getGameState().decreaseNumLives(aliveState.collectedExtraLives.size());
 
-        this.getGameState().getGameBoardController().undoMove(aliveState);
-        return true;
+            this.getGameState().getGameBoardController().undoMove(aliveState);
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * TODO Get winners of the game.
+     * Get winners of the game.
      * You can find the winning conditions from README.
      *
+     * <p>
+     * Whether the game has finished is decided in constant time from the counts of alive players and remaining gems
+     * maintained by the {@link GameBoard}. The scores of the players are only compared once the game has finished. The
+     * lock of the game board is held, so that this method can be called concurrently with moves.
+     * </p>
+     *
      * @return null if the game has not finished yet; otherwise emtpy array if there is no winners, or non-empty array if there are winners.
      */
     @Nullable
     public Player[] getWinners() {
-        throw new NotImplementedException();
+        final var lock = gameBoard.getLock();
+        lock.lock();
+        try {
+            if (gameBoard.getNumCells(BoardLayers.PLAYER) == 0) {
+                return new Player[0];
+            }
+            if (gameBoard.getNumGems() > 0) {
+                return null;
+            }
+
+            var maxScore = Integer.MIN_VALUE;
+            final var winners = new ArrayList<Player>();
+            for (final var gameState : gameStates.values()) {
+                if (gameState.getPlayer().getOwner() == null) {
+                    continue;
+                }
+
+                final var score = gameState.getScore();
+                if (score > maxScore) {
+                    maxScore = score;
+                    winners.clear();
+                }
+                if (score == maxScore) {
+                    winners.add(gameState.getPlayer());
+                }
+            }
+            return winners.toArray(new Player[0]);
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -0,0 +1,277 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.util.MoveDelegate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-writer game loop applying moves submitted by many threads to a {@link GameController}.
+ *
+ * <p>
+ * Moves are submitted to a lock-free multi-producer queue by {@link GameEngine#submit(Direction, int)} (or by the
+ * {@link MoveDelegate.MoveProcessor} returned by {@link GameEngine#processorOf(int)}), and a single game loop thread
+ * drains the queue in batches and applies the moves in order by calling
+ * {@link GameController#processMove(Direction, int)}. Since the game loop is the only thread mutating the game board,
+ * the lock of the game board is never contended by moves, and the order in which moves are applied is well-defined.
+ * </p>
+ * <p>
+ * Each successfully applied move is assigned a sequence number, and is reported to the {@link MoveListener} of the
+ * engine (if any) before its result is delivered, so that the moves can be logged and later replayed in the same order.
+ * </p>
+ * <p>
+ * An exception thrown by a move or by the listener only fails that move. If the game loop dies of an {@link Error}, the
+ * engine stops as if it has been closed, and all moves still in the queue fail with the error.
+ * </p>
+ */
+public class GameEngine implements AutoCloseable {
+
+    /**
+     * The maximum number of moves applied by the game loop before checking whether it has been stopped.
+     */
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * A move applied by the game loop.
+     *
+     * @param sequence  The sequence number of the move, starting from {@code 0} in the order of application.
+     * @param playerID  ID of the player moved.
+     * @param direction The direction the player is moved in.
+     */
+    public record Move(long sequence, int playerID, @NotNull Direction direction) {
+    }
+
+    /**
+     * Listener of moves applied by the game loop.
+     */
+    @FunctionalInterface
+    public interface MoveListener {
+
+        /**
+         * Called on the game loop thread after a move has been applied.
+         *
+         * @param move   The applied move.
+         * @param result The result of the move, as returned by {@link GameController#processMove(Direction, int)}.
+         */
+        void onMoveApplied(@NotNull Move move, @Nullable MoveResult result);
+    }
+
+    /**
+     * A move waiting in the queue.
+     */
+    private record Submission(int playerID, @NotNull Direction direction, @NotNull CompletableFuture<MoveResult> future) {
+    }
+
+    @NotNull
+    private final GameController gameController;
+
+    @Nullable
+    private final MoveListener moveListener;
+
+    @NotNull
+    private final Queue<Submission> queue = new ConcurrentLinkedQueue<>();
+
+    @NotNull
+    private final Thread gameLoop;
+
+    private volatile boolean running = true;
+
+    /**
+     * The sequence number of the next applied move. Only accessed by the game loop thread.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * Creates an instance and starts its game loop thread.
+     *
+     * @param gameController The game controller to apply moves to.
+     */
+    public GameEngine(@NotNull final GameController gameController) {
+        this(gameController, null);
+    }
+
+    /**
+     * Creates an instance and starts its game loop thread.
+     *
+     * @param gameController The game controller to apply moves to.
+     * @param moveListener   The listener to notify when a move is applied, or {@code null} if there is no listener.
+     */
+    public GameEngine(@NotNull final GameController gameController, @Nullable final MoveListener moveListener) {
+        this.gameController = Objects.requireNonNull(gameController);
+        this.moveListener = moveListener;
+
+        this.gameLoop = new Thread(this::runGameLoop, "game-loop");
+        this.gameLoop.setDaemon(true);
+        this.gameLoop.start();
+    }
+
+    /**
+     * Submits a move to be applied by the game loop.
+     *
+     * <p>
+     * This method never blocks. If the engine has been closed, the returned future is cancelled.
+     * </p>
+     *
+     * @param direction The direction the player wants to move to.
+     * @param playerID  ID of the player to move.
+     * @return A future of the result of the move, as returned by {@link GameController#processMove(Direction, int)}.
+     */
+    @NotNull
+    public CompletableFuture<MoveResult> submit(@NotNull final Direction direction, final int playerID) {
+        Objects.requireNonNull(direction);
+
+        final var future = new CompletableFuture<MoveResult>();
+        if (!running) {
+            future.cancel(false);
+            return future;
+        }
+
+        final var submission = new Submission(playerID, direction, future);
+        queue.add(submission);
+        LockSupport.unpark(gameLoop);
+
+        // The game loop may have drained the queue for the last time before the submission was added
+        if (!running && queue.remove(submission)) {
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    /**
+     * @param playerID ID of the player to move.
+     * @return A {@link MoveDelegate.MoveProcessor} which submits the moves of the player to this engine.
+     */
+    @NotNull
+    public MoveDelegate.MoveProcessor processorOf(final int playerID) {
+        return direction -> submit(direction, playerID);
+    }
+
+    /**
+     * Stops the game loop.
+     *
+     * <p>
+     * Moves submitted before this method is called are either applied or cancelled. When this method returns, the game
+     * loop thread has exited. If the current thread is interrupted while waiting for the game loop, it keeps waiting,
+     * and its interrupt status is restored before returning.
+     * </p>
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(gameLoop);
+        if (Thread.currentThread() == gameLoop) {
+            return;
+        }
+
+        var interrupted = false;
+        while (gameLoop.isAlive()) {
+            try {
+                gameLoop.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Whether the game loop is still accepting moves, i.e. the engine has not been closed and the game loop has
+     * not died.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Body of the game loop thread.
+     */
+    private void runGameLoop() {
+        Throwable death = null;
+        try {
+            while (running) {
+                if (!applyBatch()) {
+                    LockSupport.park(this);
+                }
+            }
+        } catch (Throwable e) {
+            death = e;
+            throw e;
+        } finally {
+            running = false;
+            for (var submission = queue.poll(); submission != null; submission = queue.poll()) {
+                if (death == null) {
+                    submission.future().cancel(false);
+                } else {
+                    submission.future().completeExceptionally(death);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies up to {@link GameEngine#BATCH_SIZE} moves from the queue.
+     *
+     * @return {@code false} if the queue was empty.
+     */
+    private boolean applyBatch() {
+        var applied = false;
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            final var submission = queue.poll();
+            if (submission == null) {
+                break;
+            }
+
+            apply(submission);
+            applied = true;
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a single move and delivers its result.
+     *
+     * <p>
+     * The future of the move is always completed. An {@link Error} is rethrown afterwards, which stops the game loop.
+     * </p>
+     *
+     * @param submission The move to apply.
+     */
+    private void apply(@NotNull final Submission submission) {
+        final MoveResult result;
+        try {
+            result = gameController.processMove(submission.direction(), submission.playerID());
+        } catch (Throwable e) {
+            submission.future().completeExceptionally(e);
+            rethrowIfError(e);
+            return;
+        }
+
+        final var move = new Move(nextSequence++, submission.playerID(), submission.direction());
+        if (moveListener != null) {
+            try {
+                moveListener.onMoveApplied(move, result);
+            } catch (Throwable e) {
+                // The move has been applied, but the caller should know that it has not been reported
+                submission.future().completeExceptionally(e);
+                rethrowIfError(e);
+                return;
+            }
+        }
+        submission.future().complete(result);
+    }
+
+    private static void rethrowIfError(@NotNull final Throwable e) {
+        if (e instanceof Error error) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+
+/**
+ * Decoders of the packed primitive codes returned by {@link GameBoardController#probeMove}.
+ *
+ * <p>
+ * A probe code describes the outcome of a move like a {@link MoveResult}, but without allocating any object. It is
+ * packed into a {@code long} as follows, from the least significant bit:
+ * </p>
+ * <ul>
+ *     <li>2 bits: The kind of the move, i.e. {@link MoveProbe#INVALID}, {@link MoveProbe#ALIVE} or
+ *     {@link MoveProbe#DEAD}.</li>
+ *     <li>31 bits: Row-major index of the cell where the player ends up if the move is alive, the cell of the mine if
+ *     the move is dead, or the original cell of the player if the move is invalid.</li>
+ *     <li>16 bits: The number of gems collected by the move.</li>
+ *     <li>15 bits: The number of extra lives collected by the move.</li>
+ * </ul>
+ * <p>
+ * The numbers of collected entities saturate at the maximum value of their fields.
+ * </p>
+ */
+public final class MoveProbe {
+
+    /**
+     * Kind of a move which is invalid, corresponding to {@link MoveResult.Invalid}.
+     */
+    public static final int INVALID = 0;
+
+    /**
+     * Kind of a move after which the player is alive, corresponding to {@link MoveResult.Valid.Alive}.
+     */
+    public static final int ALIVE = 1;
+
+    /**
+     * Kind of a move which hits a mine, corresponding to {@link MoveResult.Valid.Dead}.
+     */
+    public static final int DEAD = 2;
+
+    private static final int INDEX_SHIFT = 2;
+    private static final int GEMS_SHIFT = 33;
+    private static final int EXTRA_LIVES_SHIFT = 49;
+
+    private static final int MAX_GEMS = (1 << 16) - 1;
+    private static final int MAX_EXTRA_LIVES = (1 << 15) - 1;
+
+    private MoveProbe() {
+    }
+
+    /**
+     * Packs the outcome of a move.
+     *
+     * @param kind          The kind of the move.
+     * @param index         Row-major index of the cell described by the code.
+     * @param numGems       The number of gems collected by the move.
+     * @param numExtraLives The number of extra lives collected by the move.
+     * @return The packed code.
+     */
+    static long pack(final int kind, final int index, final int numGems, final int numExtraLives) {
+        return kind
+                | ((long) index << INDEX_SHIFT)
+                | ((long) Math.min(numGems, MAX_GEMS) << GEMS_SHIFT)
+                | ((long) Math.min(numExtraLives, MAX_EXTRA_LIVES) << EXTRA_LIVES_SHIFT);
+    }
+
+    /**
+     * @param code A probe code.
+     * @return The kind of the move, i.e. {@link MoveProbe#INVALID}, {@link MoveProbe#ALIVE} or {@link MoveProbe#DEAD}.
+     */
+    public static int kindOf(final long code) {
+        return (int) (code & 0b11);
+    }
+
+    /**
+     * @param code A probe code.
+     * @return Row-major index of the cell where the player ends up if the move is alive, the cell of the mine if the
+     * move is dead, or the original cell of the player if the move is invalid.
+     */
+    public static int indexOf(final long code) {
+        return (int) ((code >>> INDEX_SHIFT) & Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param code A probe code.
+     * @return The number of gems collected by the move.
+     */
+    public static int numGemsOf(final long code) {
+        return (int) ((code >>> GEMS_SHIFT) & MAX_GEMS);
+    }
+
+    /**
+     * @param code A probe code.
+     * @return The number of extra lives collected by the move.
+     */
+    public static int numExtraLivesOf(final long code) {
+        return (int) ((code >>> EXTRA_LIVES_SHIFT) & MAX_EXTRA_LIVES);
+    }
+}
@@ -0,0 +1,198 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A precomputed "slide graph" of a {@link GameBoard}.
+ *
+ * <p>
+ * For each cell and each {@link Direction}, this table stores:
+ * </p>
+ * <ul>
+ *     <li>The cell where a slide from the cell stops if there are no entities on the way, which only depends on walls,
+ *     stop cells and the borders of the game board; And</li>
+ *     <li>The nearest cell on the way containing an entity, which is kept up-to-date incrementally as entities are
+ *     changed on the game board.</li>
+ * </ul>
+ * <p>
+ * All cells are identified by their row-major index in {@link BoardLayers}. Together, these allow a slide to be
+ * resolved by only visiting the entities along its path, instead of every cell it passes.
+ * </p>
+ * <p>
+ * The table takes 8 {@code int}s (32 bytes) per cell, compared to the single byte per cell of {@link BoardLayers},
+ * so it is only built when requested, e.g. by {@link GameController#useSlideTable()}.
+ * </p>
+ */
+public final class SlideTable implements GameBoard.LayerListener {
+
+    /**
+     * Value representing the absence of a cell.
+     */
+    public static final int NONE = BoardLayers.NONE;
+
+    @NotNull
+    private final GameBoard gameBoard;
+
+    @NotNull
+    private final BoardLayers layers;
+
+    /**
+     * For each direction, the index of the cell where a slide from each cell stops, ignoring entities.
+     */
+    @NotNull
+    private final int[][] ends;
+
+    /**
+     * For each direction, the index of the nearest cell containing an entity from each cell, or {@link SlideTable#NONE}
+     * if a wall or the border is reached first.
+     */
+    @NotNull
+    private final int[][] nextEntities;
+
+    /**
+     * Creates the slide table of a game board, and starts tracking the changes of entities on the game board.
+     *
+     * @param gameBoard The game board to build the slide table of.
+     */
+    public SlideTable(@NotNull final GameBoard gameBoard) {
+        this.gameBoard = Objects.requireNonNull(gameBoard);
+        this.layers = gameBoard.getLayers();
+
+        final var numDirections = Direction.values().length;
+        this.ends = new int[numDirections][layers.size()];
+        this.nextEntities = new int[numDirections][layers.size()];
+
+        for (final var direction : Direction.values()) {
+            build(direction);
+        }
+
+        gameBoard.addLayerListener(this);
+    }
+
+    /**
+     * Stops tracking the changes of entities on the game board. The table should not be used afterwards.
+     */
+    public void detach() {
+        gameBoard.removeLayerListener(this);
+    }
+
+    /**
+     * @return The game board this table is built from.
+     */
+    @NotNull
+    public GameBoard getGameBoard() {
+        return gameBoard;
+    }
+
+    /**
+     * @param index     Row-major index of the starting cell.
+     * @param direction The direction to slide in.
+     * @return The index of the cell where the slide stops if there are no entities on the way. If the slide cannot move
+     * at all, returns {@code index}.
+     */
+    public int getEnd(final int index, @NotNull final Direction direction) {
+        return ends[direction.ordinal()][index];
+    }
+
+    /**
+     * @param index     Row-major index of the starting cell.
+     * @param direction The direction to look in.
+     * @return The index of the nearest cell after {@code index} in {@code direction} containing an entity, or
+     * {@link SlideTable#NONE} if a wall or the border of the game board is reached first.
+     */
+    public int getNextEntity(final int index, @NotNull final Direction direction) {
+        return nextEntities[direction.ordinal()][index];
+    }
+
+    /**
+     * @param index     Row-major index of a cell.
+     * @param direction The direction to step in.
+     * @return The index of the adjacent cell in {@code direction}, or {@link SlideTable#NONE} if the adjacent cell is
+     * out of bounds or is a wall.
+     */
+    public int step(final int index, @NotNull final Direction direction) {
+        final var next = layers.offsetBy(index, direction);
+        return next == NONE || layers.has(next, BoardLayers.WALL) ? NONE : next;
+    }
+
+    /**
+     * Builds the tables of a single direction.
+     *
+     * <p>
+     * Cells are visited starting from the far side of {@code direction}, so that the adjacent cell of each cell is
+     * always computed before the cell itself.
+     * </p>
+     *
+     * @param direction The direction to build.
+     */
+    private void build(@NotNull final Direction direction) {
+        final var end = ends[direction.ordinal()];
+        final var nextEntity = nextEntities[direction.ordinal()];
+        final var reversed = direction == Direction.DOWN || direction == Direction.RIGHT;
+
+        for (int i = 0; i < layers.size(); ++i) {
+            final var index = reversed ? layers.size() - 1 - i : i;
+            if (layers.has(index, BoardLayers.WALL)) {
+                end[index] = NONE;
+                nextEntity[index] = NONE;
+                continue;
+            }
+
+            final var next = step(index, direction);
+            if (next == NONE) {
+                end[index] = index;
+                nextEntity[index] = NONE;
+            } else {
+                end[index] = layers.has(next, BoardLayers.STOP) ? next : end[next];
+                nextEntity[index] = layers.has(next, BoardLayers.ENTITY_MASK) ? next : nextEntity[next];
+            }
+        }
+    }
+
+    /**
+     * Updates the nearest entities of all cells affected by a change of entity in a cell.
+     *
+     * <p>
+     * Only the cells behind {@code index} (in each direction) up to the previous entity or wall can observe the change,
+     * so this takes time proportional to the length of that run of cells.
+     * </p>
+     */
+    @Override
+    public void onLayerChanged(final int index, final byte prevFlags, final byte newFlags) {
+        if (((prevFlags ^ newFlags) & BoardLayers.ENTITY_MASK) == 0) {
+            return;
+        }
+
+        for (final var direction : Direction.values()) {
+            final var nextEntity = nextEntities[direction.ordinal()];
+            final var opposite = opposite(direction);
+            final var value = layers.has(index, BoardLayers.ENTITY_MASK) ? index : nextEntity[index];
+
+            for (int k = step(index, opposite); k != NONE; k = step(k, opposite)) {
+                nextEntity[k] = value;
+                if (layers.has(k, BoardLayers.ENTITY_MASK)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param direction A direction.
+     * @return The opposite direction of {@code direction}.
+     */
+    @NotNull
+    private static Direction opposite(@NotNull final Direction direction) {
+        return switch (direction) {
+            case UP -> Direction.DOWN;
+            case DOWN -> Direction.UP;
+            case LEFT -> Direction.RIGHT;
+            case RIGHT -> Direction.LEFT;
+        };
+    }
+}
@@ -0,0 +1,264 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Compact, primitive backing store of a {@link GameBoard}.
+ *
+ * <p>
+ * Every cell of the game board is represented by a single {@code byte}, in which each bit represents whether the cell
+ * belongs to a layer (e.g. {@link BoardLayers#WALL} or {@link BoardLayers#GEM}). Cells are stored in row-major order,
+ * so that the cell at {@code (r, c)} is located at index {@code r * numCols + c}.
+ * </p>
+ * <p>
+ * Instances are only mutated by the {@link GameBoard} owning them, which keeps the layers in sync with
+ * {@link EntityCell#setEntity(Entity)}. Other classes should treat this class as a read-only view.
+ * </p>
+ */
+public final class BoardLayers {
+
+    /**
+     * Layer of {@link Wall} cells.
+     */
+    public static final byte WALL = 1;
+    /**
+     * Layer of {@link StopCell} cells.
+     */
+    public static final byte STOP = 1 << 1;
+    /**
+     * Layer of cells containing a {@link Gem}.
+     */
+    public static final byte GEM = 1 << 2;
+    /**
+     * Layer of cells containing a {@link Mine}.
+     */
+    public static final byte MINE = 1 << 3;
+    /**
+     * Layer of cells containing an {@link ExtraLife}.
+     */
+    public static final byte EXTRA_LIFE = 1 << 4;
+    /**
+     * Layer of cells containing a {@link Player}.
+     */
+    public static final byte PLAYER = 1 << 5;
+
+    /**
+     * Union of all layers representing an {@link Entity}.
+     */
+    public static final byte ENTITY_MASK = GEM | MINE | EXTRA_LIFE | PLAYER;
+
+    /**
+     * Value representing the absence of a cell index.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Number of rows in the game board.
+     */
+    private final int numRows;
+    /**
+     * Number of columns in the game board.
+     */
+    private final int numCols;
+
+    /**
+     * The layer flags of each cell, in row-major order.
+     */
+    @NotNull
+    private final byte[] flags;
+
+    /**
+     * Creates an instance with all cells being empty {@link EntityCell}s.
+     *
+     * @param numRows The number of rows in the game board.
+     * @param numCols The number of columns in the game board.
+     */
+    public BoardLayers(final int numRows, final int numCols) {
+        this(numRows, numCols, new byte[numRows * numCols]);
+    }
+
+    /**
+     * Creates an instance backed by the given array of layer flags.
+     *
+     * <p>
+     * The array is adopted as-is without copying; The caller should not modify the array afterwards.
+     * </p>
+     *
+     * @param numRows The number of rows in the game board.
+     * @param numCols The number of columns in the game board.
+     * @param flags   The layer flags of each cell, in row-major order.
+     * @throws IllegalArgumentException if the length of {@code flags} is not {@code numRows * numCols}.
+     */
+    public BoardLayers(final int numRows, final int numCols, @NotNull final byte[] flags) {
+        Objects.requireNonNull(flags);
+        if (numRows <= 0 || numCols <= 0 || flags.length != numRows * numCols) {
+            throw new IllegalArgumentException();
+        }
+
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.flags = flags;
+    }
+
+    /**
+     * @return The number of rows of the game board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns of the game board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The total number of cells of the game board.
+     */
+    public int size() {
+        return flags.length;
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The row-major index of the cell at the specified location.
+     */
+    public int indexOf(final int r, final int c) {
+        return r * numCols + c;
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @return The row index of the cell.
+     */
+    public int rowOf(final int index) {
+        return index / numCols;
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @return The column index of the cell.
+     */
+    public int colOf(final int index) {
+        return index % numCols;
+    }
+
+    /**
+     * @param index     Row-major index of a cell.
+     * @param direction The direction to offset in.
+     * @return The row-major index of the adjacent cell in {@code direction}, or {@link BoardLayers#NONE} if the adjacent
+     * cell is outside of the game board.
+     */
+    public int offsetBy(final int index, @NotNull final Direction direction) {
+        final var r = rowOf(index) + direction.getRowOffset();
+        final var c = colOf(index) + direction.getColOffset();
+
+        if (r < 0 || r >= numRows || c < 0 || c >= numCols) {
+            return NONE;
+        }
+        return indexOf(r, c);
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @return The layer flags of the cell.
+     */
+    public byte get(final int index) {
+        return flags[index];
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The layer flags of the cell.
+     */
+    public byte get(final int r, final int c) {
+        return flags[indexOf(r, c)];
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @param layer The layer(s) to check.
+     * @return {@code true} if the cell belongs to any of the given layers.
+     */
+    public boolean has(final int index, final byte layer) {
+        return (flags[index] & layer) != 0;
+    }
+
+    /**
+     * Counts the number of cells belonging to any of the given layers.
+     *
+     * @param layer The layer(s) to count.
+     * @return The number of cells belonging to {@code layer}.
+     */
+    public int count(final byte layer) {
+        var count = 0;
+        for (final var f : flags) {
+            if ((f & layer) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the entity layer of a cell, leaving the cell layers ({@link BoardLayers#WALL} and
+     * {@link BoardLayers#STOP}) untouched.
+     *
+     * @param index       Row-major index of a cell.
+     * @param entityLayer The new entity layer of the cell, or {@code 0} if the cell no longer contains an entity.
+     */
+    void setEntity(final int index, final byte entityLayer) {
+        flags[index] = (byte) ((flags[index] & ~ENTITY_MASK) | entityLayer);
+    }
+
+    /**
+     * Replaces all layer flags of a cell.
+     *
+     * @param index Row-major index of a cell.
+     * @param value The new layer flags of the cell.
+     */
+    void set(final int index, final byte value) {
+        flags[index] = value;
+    }
+
+    /**
+     * @param cell The cell to convert.
+     * @return The layer flags representing {@code cell} and its entity.
+     */
+    static byte layersOf(@NotNull final Cell cell) {
+        if (cell instanceof Wall) {
+            return WALL;
+        }
+
+        final var entityCell = (EntityCell) cell;
+        final var cellLayer = entityCell instanceof StopCell ? STOP : 0;
+        return (byte) (cellLayer | layerOf(entityCell.getEntity()));
+    }
+
+    /**
+     * @param entity The entity to convert.
+     * @return The layer representing the type of {@code entity}, or {@code 0} if {@code entity} is {@code null}.
+     */
+    static byte layerOf(@Nullable final Entity entity) {
+        if (entity instanceof Gem) {
+            return GEM;
+        }
+        if (entity instanceof Mine) {
+            return MINE;
+        }
+        if (entity instanceof ExtraLife) {
+            return EXTRA_LIFE;
+        }
+        if (entity instanceof Player) {
+            return PLAYER;
+        }
+        return 0;
+    }
+}
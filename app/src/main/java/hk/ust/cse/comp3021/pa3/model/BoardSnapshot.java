@@ -0,0 +1,411 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the layers and the players of a {@link GameBoard}, for searching hypothetical moves.
+ *
+ * <p>
+ * The layer flags are split into chunks of whole rows, and the chunks are grouped into blocks of
+ * {@link BoardSnapshot#CHUNKS_PER_BLOCK} chunks, forming a persistent two-level tree shared between snapshots. Making a
+ * move on a snapshot with {@link BoardSnapshot#move(int, Direction)} returns a new snapshot which copies the top level
+ * of the tree, i.e. one reference per block, and the blocks and chunks containing the cells changed by the move, and
+ * shares all other blocks and chunks with this snapshot. The top level has roughly one reference per 32768 cells, so
+ * it is a single reference on most game boards, and the cost of a move is dominated by the chunks it touches. Since
+ * snapshots are immutable, branching a search is free, and the live {@link GameBoard} is never touched by the search.
+ * </p>
+ * <p>
+ * Snapshots are created by {@link GameBoard#snapshot()}, which also reuses the blocks and chunks that have not changed
+ * since its previous snapshot. Players are identified by their slot, i.e. their position in
+ * {@link GameBoard#getPlayers()} when the game board is created.
+ * </p>
+ */
+public final class BoardSnapshot {
+
+    /**
+     * The target number of cells in a chunk. Each chunk contains at least one row.
+     */
+    static final int CHUNK_CELLS = 1024;
+
+    /**
+     * The number of chunks in a block, except possibly the last block.
+     */
+    static final int CHUNKS_PER_BLOCK = 32;
+
+    private final int numRows;
+
+    private final int numCols;
+
+    /**
+     * The number of rows in each chunk, except possibly the last chunk.
+     */
+    private final int rowsPerChunk;
+
+    /**
+     * The layer flags of the cells, in row-major order, split into chunks of {@link BoardSnapshot#rowsPerChunk} rows,
+     * which are grouped into blocks of {@link BoardSnapshot#CHUNKS_PER_BLOCK} chunks. Neither the array, the blocks nor
+     * the chunks are modified once the snapshot is created.
+     */
+    @NotNull
+    private final byte[][][] blocks;
+
+    /**
+     * Row-major index of the cell of each player, or {@link BoardLayers#NONE} if the player is no longer on the board.
+     */
+    @NotNull
+    private final int[] playerIndices;
+
+    private final int numGems;
+
+    private final long zobristHash;
+
+    private BoardSnapshot(
+            final int numRows,
+            final int numCols,
+            @NotNull final byte[][][] blocks,
+            @NotNull final int[] playerIndices,
+            final int numGems,
+            final long zobristHash
+    ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowsPerChunk = rowsPerChunk(numCols);
+        this.blocks = blocks;
+        this.playerIndices = playerIndices;
+        this.numGems = numGems;
+        this.zobristHash = zobristHash;
+    }
+
+    /**
+     * Creates a snapshot of the layers of a game board.
+     *
+     * <p>
+     * This method should only be called from {@link GameBoard#snapshot()}, while holding the lock of the game board.
+     * </p>
+     *
+     * @param previous      The previous snapshot of the same game board, or {@code null} if there is none.
+     * @param layers        The layers of the game board.
+     * @param dirtyChunks   The chunks which have changed since {@code previous} was created. Ignored if
+     *                      {@code previous} is {@code null}.
+     * @param playerIndices Row-major index of the cell of each player, or {@link BoardLayers#NONE} if the player is no
+     *                      longer on the game board.
+     * @param numGems       The number of gems on the game board.
+     * @param zobristHash   The Zobrist hash of the game board.
+     * @return The new snapshot.
+     */
+    @NotNull
+    static BoardSnapshot of(
+            @Nullable final BoardSnapshot previous,
+            @NotNull final BoardLayers layers,
+            @NotNull final BitSet dirtyChunks,
+            @NotNull final int[] playerIndices,
+            final int numGems,
+            final long zobristHash
+    ) {
+        final var numRows = layers.getNumRows();
+        final var numCols = layers.getNumCols();
+        final var chunkSize = rowsPerChunk(numCols) * numCols;
+        final var numChunks = (layers.size() + chunkSize - 1) / chunkSize;
+        final var blocks = new byte[(numChunks + CHUNKS_PER_BLOCK - 1) / CHUNKS_PER_BLOCK][][];
+
+        for (int b = 0; b < blocks.length; ++b) {
+            final var firstChunk = b * CHUNKS_PER_BLOCK;
+            final var lastChunk = Math.min(firstChunk + CHUNKS_PER_BLOCK, numChunks);
+            final var nextDirtyChunk = dirtyChunks.nextSetBit(firstChunk);
+            if (previous != null && (nextDirtyChunk == -1 || nextDirtyChunk >= lastChunk)) {
+                blocks[b] = previous.blocks[b];
+                continue;
+            }
+
+            blocks[b] = new byte[lastChunk - firstChunk][];
+            for (int i = firstChunk; i < lastChunk; ++i) {
+                if (previous != null && !dirtyChunks.get(i)) {
+                    blocks[b][i - firstChunk] = previous.getChunk(i);
+                    continue;
+                }
+
+                final var from = i * chunkSize;
+                final var chunk = new byte[Math.min(chunkSize, layers.size() - from)];
+                for (int k = 0; k < chunk.length; ++k) {
+                    chunk[k] = layers.get(from + k);
+                }
+                blocks[b][i - firstChunk] = chunk;
+            }
+        }
+        return new BoardSnapshot(numRows, numCols, blocks, playerIndices.clone(), numGems, zobristHash);
+    }
+
+    /**
+     * @param numCols The number of columns of the game board.
+     * @return The number of rows in each chunk.
+     */
+    private static int rowsPerChunk(final int numCols) {
+        return Math.max(1, CHUNK_CELLS / numCols);
+    }
+
+    /**
+     * @param numCols The number of columns of the game board.
+     * @param index   Row-major index of a cell.
+     * @return The chunk containing the cell.
+     */
+    static int chunkOf(final int numCols, final int index) {
+        return index / (rowsPerChunk(numCols) * numCols);
+    }
+
+    /**
+     * @param chunk Index of a chunk.
+     * @return The layer flags of the chunk, for checking whether chunks are shared between snapshots.
+     */
+    @NotNull
+    byte[] getChunk(final int chunk) {
+        return blocks[chunk / CHUNKS_PER_BLOCK][chunk % CHUNKS_PER_BLOCK];
+    }
+
+    /**
+     * @param block Index of a block.
+     * @return The chunks of the block, for checking whether blocks are shared between snapshots.
+     */
+    @NotNull
+    byte[][] getBlock(final int block) {
+        return blocks[block];
+    }
+
+    /**
+     * @return The number of rows of the game board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns of the game board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @return The layer flags of the cell.
+     */
+    public byte get(final int index) {
+        final var chunkSize = rowsPerChunk * numCols;
+        return getChunk(index / chunkSize)[index % chunkSize];
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The layer flags of the cell.
+     */
+    public byte get(final int r, final int c) {
+        Objects.checkIndex(r, numRows);
+        Objects.checkIndex(c, numCols);
+        return getChunk(r / rowsPerChunk)[(r % rowsPerChunk) * numCols + c];
+    }
+
+    /**
+     * @return The number of player slots, including players which are no longer on the game board.
+     */
+    public int getNumPlayers() {
+        return playerIndices.length;
+    }
+
+    /**
+     * @param playerSlot The slot of a player.
+     * @return Row-major index of the cell of the player, or {@link BoardLayers#NONE} if the player is no longer on the
+     * game board.
+     */
+    public int getPlayerIndex(final int playerSlot) {
+        return playerIndices[playerSlot];
+    }
+
+    /**
+     * @return The number of gems on the game board.
+     */
+    public int getNumGems() {
+        return numGems;
+    }
+
+    /**
+     * @return The Zobrist hash of this snapshot, which is consistent with {@link GameBoard#getZobristHash()}.
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * Makes a move on a copy of this snapshot.
+     *
+     * <p>
+     * The move follows the rules of {@link hk.ust.cse.comp3021.pa3.controller.GameBoardController}: The player slides
+     * until it hits a wall, the border or another player, or stops on a stop cell, collecting all gems and extra lives
+     * along the way. This snapshot is not modified.
+     * </p>
+     * <p>
+     * The new snapshot copies the top level of the chunk tree, and the blocks and chunks containing the start of the
+     * move, the end of the move, and the gems and extra lives collected along the way.
+     * </p>
+     *
+     * @param playerSlot The slot of the player to move.
+     * @param direction  The direction to move in.
+     * @return The snapshot after the move, or {@code null} if the player is no longer on the game board, the move is
+     * invalid, or the player hits a mine.
+     */
+    @Nullable
+    public BoardSnapshot move(final int playerSlot, @NotNull final Direction direction) {
+        Objects.requireNonNull(direction);
+
+        final var start = playerIndices[playerSlot];
+        // Find the end of the slide first, so that nothing is copied for invalid or deadly moves
+        final var end = slideEnd(playerSlot, direction);
+        if (end == BoardLayers.NONE) {
+            return null;
+        }
+
+        final var newBlocks = blocks.clone();
+        final var copied = new BitSet();
+        var newNumGems = numGems;
+        var newHash = zobristHash
+                ^ GameBoard.zobristKey(start, BoardLayers.PLAYER, playerSlot)
+                ^ GameBoard.zobristKey(end, BoardLayers.PLAYER, playerSlot);
+        clearLayer(newBlocks, copied, start, BoardLayers.PLAYER);
+
+        for (var k = start; k != end; ) {
+            k = offsetBy(k, direction);
+            final var flags = get(k);
+            if ((flags & BoardLayers.GEM) != 0) {
+                newNumGems--;
+                newHash ^= GameBoard.zobristKey(k, BoardLayers.GEM, -1);
+                clearLayer(newBlocks, copied, k, BoardLayers.GEM);
+            } else if ((flags & BoardLayers.EXTRA_LIFE) != 0) {
+                newHash ^= GameBoard.zobristKey(k, BoardLayers.EXTRA_LIFE, -1);
+                clearLayer(newBlocks, copied, k, BoardLayers.EXTRA_LIFE);
+            }
+        }
+        final var endChunk = writableChunk(newBlocks, copied, end);
+        endChunk[end % (rowsPerChunk * numCols)] |= BoardLayers.PLAYER;
+
+        final var newPlayerIndices = playerIndices.clone();
+        newPlayerIndices[playerSlot] = end;
+        return new BoardSnapshot(numRows, numCols, newBlocks, newPlayerIndices, newNumGems, newHash);
+    }
+
+    /**
+     * Checks whether a move can be made without creating the snapshot after the move.
+     *
+     * @param playerSlot The slot of the player to move.
+     * @param direction  The direction to move in.
+     * @return Whether {@link BoardSnapshot#move(int, Direction)} would return a snapshot.
+     */
+    public boolean canMove(final int playerSlot, @NotNull final Direction direction) {
+        return slideEnd(playerSlot, Objects.requireNonNull(direction)) != BoardLayers.NONE;
+    }
+
+    /**
+     * @param playerSlot The slot of the player to move.
+     * @param direction  The direction to move in.
+     * @return Row-major index of the cell where the player ends up, or {@link BoardLayers#NONE} if the player is no
+     * longer on the game board, the move is invalid, or the player hits a mine.
+     */
+    private int slideEnd(final int playerSlot, @NotNull final Direction direction) {
+        final var start = playerIndices[playerSlot];
+        if (start == BoardLayers.NONE) {
+            return BoardLayers.NONE;
+        }
+        return slideEnd(playerSlot, start, direction);
+    }
+
+    /**
+     * Finds where a player would end up moving from a cell, without moving the player on this snapshot.
+     *
+     * <p>
+     * This is the slide used by {@link BoardSnapshot#move(int, Direction)}, but starting from any cell, e.g. to search
+     * the slide graph of a single player: Other players block the move, while the cell of the player itself is treated
+     * as empty. Gems and extra lives are not collected, so they never affect the end of the slide.
+     * </p>
+     *
+     * @param playerSlot The slot of the player to move.
+     * @param start      Row-major index of the cell to move from.
+     * @param direction  The direction to move in.
+     * @return Row-major index of the cell where the player ends up, or {@link BoardLayers#NONE} if the move is invalid
+     * or the player hits a mine.
+     */
+    public int slideEnd(final int playerSlot, final int start, @NotNull final Direction direction) {
+        final var self = playerIndices[playerSlot];
+
+        var end = start;
+        while (true) {
+            final var next = offsetBy(end, direction);
+            if (next == BoardLayers.NONE || (get(next) & BoardLayers.WALL) != 0
+                    || ((get(next) & BoardLayers.PLAYER) != 0 && next != self)) {
+                break;
+            }
+            if ((get(next) & BoardLayers.MINE) != 0) {
+                return BoardLayers.NONE;
+            }
+
+            end = next;
+            if ((get(next) & BoardLayers.STOP) != 0) {
+                break;
+            }
+        }
+        return end == start ? BoardLayers.NONE : end;
+    }
+
+    /**
+     * Removes a layer from a cell of a snapshot being built by {@link BoardSnapshot#move(int, Direction)}.
+     */
+    private void clearLayer(
+            @NotNull final byte[][][] newBlocks,
+            @NotNull final BitSet copied,
+            final int index,
+            final byte layer
+    ) {
+        final var chunk = writableChunk(newBlocks, copied, index);
+        chunk[index % (rowsPerChunk * numCols)] &= (byte) ~layer;
+    }
+
+    /**
+     * @param copied The blocks and chunks copied so far, where bit {@code 2 * chunk} is set if the chunk has been
+     *               copied, and bit {@code 2 * block + 1} is set if the block has been copied.
+     * @return The chunk containing the cell in a snapshot being built by {@link BoardSnapshot#move(int, Direction)},
+     * which is copied from this snapshot on the first write, together with its block.
+     */
+    @NotNull
+    private byte[] writableChunk(@NotNull final byte[][][] newBlocks, @NotNull final BitSet copied, final int index) {
+        final var chunk = index / (rowsPerChunk * numCols);
+        final var block = chunk / CHUNKS_PER_BLOCK;
+        if (!copied.get(2 * block + 1)) {
+            newBlocks[block] = blocks[block].clone();
+            copied.set(2 * block + 1);
+        }
+        if (!copied.get(2 * chunk)) {
+            final var original = blocks[block][chunk % CHUNKS_PER_BLOCK];
+            newBlocks[block][chunk % CHUNKS_PER_BLOCK] = Arrays.copyOf(original, original.length);
+            copied.set(2 * chunk);
+        }
+        return newBlocks[block][chunk % CHUNKS_PER_BLOCK];
+    }
+
+    /**
+     * @param index     Row-major index of a cell.
+     * @param direction The direction to offset in.
+     * @return The row-major index of the adjacent cell in {@code direction}, or {@link BoardLayers#NONE} if the
+     * adjacent cell is outside of the game board.
+     */
+    private int offsetBy(final int index, @NotNull final Direction direction) {
+        final var r = index / numCols + direction.getRowOffset();
+        final var c = index % numCols + direction.getColOffset();
+
+        if (r < 0 || r >= numRows || c < 0 || c >= numCols) {
+            return BoardLayers.NONE;
+        }
+        return r * numCols + c;
+    }
+}
@@ -25,11 +25,23 @@ public enum Direction {
     RIGHT;
 
     /**
-     * @return An instance of {@link PositionOffset} representing a single-cell offset in this direction.
+     * The single-cell offsets of each direction, indexed by {@link Direction#ordinal()}.
+     */
+    private static final PositionOffset[] OFFSETS = new PositionOffset[values().length];
+
+    static {
+        for (final var direction : values()) {
+            OFFSETS[direction.ordinal()] = new PositionOffset(direction.getRowOffset(), direction.getColOffset());
+        }
+    }
+
+    /**
+     * @return An instance of {@link PositionOffset} representing a single-cell offset in this direction. The same
+     * instance is returned on every call.
      */
     @NotNull
     public PositionOffset getOffset() {
-        return new PositionOffset(getRowOffset(), getColOffset());
+        return OFFSETS[ordinal()];
     }
 
     /**
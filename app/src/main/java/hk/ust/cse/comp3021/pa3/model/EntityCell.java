@@ -27,6 +27,17 @@ public sealed class EntityCell extends Cell permits StopCell {
     @Nullable
     Entity entity = null;
 
+    /**
+     * The game board which this cell belongs to, or {@code null} if this cell is not yet part of a game board.
+     *
+     * <p>
+     * The game board is notified on every {@link EntityCell#setEntity(Entity)}, so that its {@link BoardLayers} stay
+     * in sync with the entities of its cells.
+     * </p>
+     */
+    @Nullable
+    GameBoard board = null;
+
     /**
      * Creates an instance of {@link EntityCell} at the given game board position.
      *
@@ -89,6 +100,10 @@ public sealed class EntityCell extends Cell permits StopCell {
             this.entity.setOwner(this);
         }
 
+        if (board != null) {
+            board.onEntityChanged(this, prevEntity);
+        }
+
         return prevEntity;
     }
 
@@ -3,7 +3,13 @@ package hk.ust.cse.comp3021.pa3.model;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -13,9 +19,38 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>
  * The top-left hand corner of the game board is the "origin" of the board (0, 0).
  * </p>
+ * <p>
+ * The state of the game board is stored in {@link BoardLayers}, which take one byte per cell. {@link Cell} instances
+ * are only views over the layers: They are created on first access and weakly cached, so only the cells still in use
+ * (e.g. the cells of the players, or cells held by the caller) stay on the heap, at roughly 100 bytes each including
+ * their cache entry. {@link Position} instances are kept in a cache of at most {@link GameBoard#POSITION_CACHE_SIZE}
+ * references. For example, a 1000x1000 game board takes 1 MB of layers, at most about 128 KB of cached positions, and
+ * memory for the cells in use, instead of 8 to 16 MB of references to cells and positions.
+ * </p>
  */
 public final class GameBoard {
 
+    /**
+     * The maximum number of {@link Position} instances cached by a game board.
+     */
+    static final int POSITION_CACHE_SIZE = 4096;
+
+    /**
+     * Listener of changes to the {@link BoardLayers} of a game board.
+     */
+    @FunctionalInterface
+    public interface LayerListener {
+
+        /**
+         * Invoked after the layers of a cell have changed.
+         *
+         * @param index     Row-major index of the cell.
+         * @param prevFlags The layer flags of the cell before the change.
+         * @param newFlags  The layer flags of the cell after the change.
+         */
+        void onLayerChanged(int index, byte prevFlags, byte newFlags);
+    }
+
     /**
      * Number of rows in the game board.
      */
@@ -26,10 +61,49 @@ public final class GameBoard {
     private final int numCols;
 
     /**
-     * 2D array representing each cell in the game board.
+     * Primitive layers representing the type of each cell and the entity it contains.
+     */
+    @NotNull
+    private final BoardLayers layers;
+
+    /**
+     * A weak reference to a {@link Cell} instance of the game board, which remembers the index of the cell so that its
+     * entry can be removed from {@link GameBoard#cells} after the cell is collected.
+     */
+    private static final class CellReference extends WeakReference<Cell> {
+
+        private final int index;
+
+        CellReference(@NotNull final Cell cell, final int index, @NotNull final ReferenceQueue<Cell> queue) {
+            super(cell, queue);
+            this.index = index;
+        }
+    }
+
+    /**
+     * {@link Cell} instances of the game board handed out so far, keyed by row-major index.
+     *
+     * <p>
+     * Cells are lazily created from {@link GameBoard#layers} when first accessed, and are only weakly referenced, so a
+     * cell which is no longer used anywhere else is collected and recreated from the layers on its next access. Cells
+     * containing a {@link Player} are kept alive by {@link GameBoard#players}, since each player references its owner.
+     * </p>
+     */
+    @NotNull
+    private final ConcurrentHashMap<Integer, CellReference> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Queue of the references in {@link GameBoard#cells} whose cells have been collected.
      */
     @NotNull
-    private final Cell[][] board;
+    private final ReferenceQueue<Cell> collectedCells = new ReferenceQueue<>();
+
+    /**
+     * Cache of {@link Position} instances, where the position of the cell at row-major index {@code i} is stored at
+     * {@code i % positions.length()}.
+     */
+    @NotNull
+    private final AtomicReferenceArray<Position> positions;
 
     /**
      * The instance of {@link Player} on this game board.
@@ -37,6 +111,62 @@ public final class GameBoard {
     @NotNull
     private final List<Player> players;
 
+    /**
+     * Listeners to notify when the layers of a cell have changed.
+     */
+    @NotNull
+    private final List<LayerListener> layerListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of cells in each layer of {@link BoardLayers}, indexed by the bit position of the layer.
+     */
+    @NotNull
+    private final int[] layerCounts = new int[Byte.SIZE];
+
+    /**
+     * The number of gems collected by each player, indexed by the position of the player in
+     * {@link GameBoard#players}.
+     */
+    @NotNull
+    private final int[] collectedGems;
+
+    /**
+     * The number of extra lives collected by each player, indexed by the position of the player in
+     * {@link GameBoard#players}.
+     */
+    @NotNull
+    private final int[] collectedExtraLives;
+
+    /**
+     * Zobrist hash of the layers and the players of this game board, maintained as entities are changed.
+     */
+    private long zobristHash;
+
+    /**
+     * The snapshot last returned by {@link GameBoard#snapshot()}, or {@code null} if no snapshot has been taken.
+     */
+    @Nullable
+    private BoardSnapshot lastSnapshot = null;
+
+    /**
+     * The chunks of {@link GameBoard#lastSnapshot} which no longer match the layers of this game board.
+     */
+    @NotNull
+    private final BitSet dirtyChunks = new BitSet();
+
+    /**
+     * Lock guarding all reads and mutations of this game board made by moves.
+     *
+     * <p>
+     * A single lock is used for the whole game board instead of striped locks (e.g. one per row and column). A slide
+     * along a row crosses the columns of every cell it passes, and a slide graph maintained by a {@link LayerListener}
+     * is updated along runs in all four directions from every changed cell, so the set of locks a move would need to
+     * hold is effectively the whole game board anyway.
+     * </p>
+     */
+    @NotNull
+    private final Lock lock = new ReentrantLock();
+
     /**
      * Creates an instance using the provided creation parameters.
      *
@@ -53,9 +183,7 @@ public final class GameBoard {
      *                                  </ul>
      */
     public GameBoard(final int numRows, final int numCols, @NotNull final Cell[][] cells) {
-        this.numRows = numRows;
-        this.numCols = numCols;
-        this.board = Objects.requireNonNull(cells);
+        Objects.requireNonNull(cells);
 
         if (cells.length != numRows) {
             throw new IllegalArgumentException();
@@ -64,7 +192,32 @@ public final class GameBoard {
             throw new IllegalArgumentException();
         }
 
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.layers = new BoardLayers(numRows, numCols);
+        this.positions = new AtomicReferenceArray<>(Math.min(layers.size(), POSITION_CACHE_SIZE));
+
+        for (int r = 0; r < numRows; ++r) {
+            if (cells[r].length != numCols) {
+                throw new IllegalArgumentException();
+            }
+            for (int c = 0; c < numCols; ++c) {
+                final var cell = Objects.requireNonNull(cells[r][c]);
+                final var index = layers.indexOf(r, c);
+
+                layers.set(index, BoardLayers.layersOf(cell));
+                cacheCell(index, cell);
+                attach(cell);
+            }
+        }
+
         this.players = getPlayers();
+        // Keep the cells alive until the players, which keep their cells alive, are stored
+        Reference.reachabilityFence(cells);
+        this.collectedGems = new int[players.size()];
+        this.collectedExtraLives = new int[players.size()];
+        countLayers();
+        this.zobristHash = computeZobristHash();
 
         if (getNumGems() == 0) {
             throw new IllegalArgumentException();
@@ -75,193 +228,411 @@ public final class GameBoard {
     }
 
     /**
-     * Checks that a single player exists on the game board, and returns the instance of the player.
+     * Creates an instance backed by the provided layers.
      *
-     * @return The single instance of player on the game board.
-     * @throws IllegalArgumentException if the game board has zero, or more than one player entities.
+     * <p>
+     * Only the cells containing a {@link Player} are created eagerly, with a new instance of {@link Player} for each of
+     * them in row-major order. All other {@link Cell} instances are created when they are first accessed.
+     * </p>
+     *
+     * @param layers The initial layers of the game board. The instance is owned by the game board afterwards.
+     * @throws IllegalArgumentException if any of the following are true:
+     *                                  <ul>
+     *                                      <li>A cell in {@code layers} is not a valid combination of layers</li>
+     *                                      <li>There is no player in {@code layers}</li>
+     *                                      <li>There are no gems in {@code layers}</li>
+     *                                      <li>There are some gems which cannot be reached by the player</li>
+     *                                  </ul>
      */
-    @NotNull
-    public List<Player> getPlayers() {
-        var players = new ArrayList<Player>();
-        for (final var row : board) {
-            for (final var cell : row) {
-                if (cell instanceof EntityCell ec && ec.getEntity() instanceof Player p) {
-                    players.add(p);
-                }
+    public GameBoard(@NotNull final BoardLayers layers) {
+        this.layers = Objects.requireNonNull(layers);
+        this.numRows = layers.getNumRows();
+        this.numCols = layers.getNumCols();
+        this.positions = new AtomicReferenceArray<>(Math.min(layers.size(), POSITION_CACHE_SIZE));
+
+        final var playerCells = new ArrayList<Cell>();
+        for (int i = 0; i < layers.size(); ++i) {
+            final var flags = layers.get(i);
+            if ((flags & BoardLayers.WALL) != 0 && flags != BoardLayers.WALL) {
+                throw new IllegalArgumentException();
+            }
+            if ((flags & BoardLayers.PLAYER) != 0) {
+                playerCells.add(cacheCell(i, createCell(i)));
             }
         }
 
-        if (players.size() == 0) {
+        this.players = getPlayers();
+        // Keep the cells alive until the players, which keep their cells alive, are stored
+        Reference.reachabilityFence(playerCells);
+        this.collectedGems = new int[players.size()];
+        this.collectedExtraLives = new int[players.size()];
+        countLayers();
+        this.zobristHash = computeZobristHash();
+
+        if (getNumGems() == 0) {
+            throw new IllegalArgumentException();
+        }
+        if (!isAllGemsReachable()) {
             throw new IllegalArgumentException();
         }
+    }
 
-        return players;
+    /**
+     * Creates the {@link Cell} instance represented by the layers at the given index, and binds it to this game board.
+     *
+     * @param index Row-major index of the cell.
+     * @return The new {@link Cell} instance.
+     * @throws IllegalArgumentException if the layers at {@code index} is not a valid combination of layers.
+     */
+    @NotNull
+    private Cell createCell(final int index) {
+        final var position = getPosition(index);
+        final var flags = layers.get(index);
+
+        if ((flags & BoardLayers.WALL) != 0) {
+            return new Wall(position);
+        }
+
+        final Entity entity = switch (flags & BoardLayers.ENTITY_MASK) {
+            case 0 -> null;
+            case BoardLayers.GEM -> new Gem();
+            case BoardLayers.MINE -> new Mine();
+            case BoardLayers.EXTRA_LIFE -> new ExtraLife();
+            case BoardLayers.PLAYER -> new Player();
+            default -> throw new IllegalArgumentException();
+        };
+        final var cell = (flags & BoardLayers.STOP) != 0
+                ? new StopCell(position, entity)
+                : new EntityCell(position, entity);
+        attach(cell);
+        return cell;
+    }
+
+    /**
+     * Initializes {@link GameBoard#layerCounts} by counting the cells in each layer.
+     */
+    private void countLayers() {
+        for (int i = 0; i < layers.size(); ++i) {
+            addToLayerCounts(layers.get(i), 1);
+        }
     }
 
     /**
-     * Retrieves the instance of {@link EntityCell} by a position with an offset.
+     * Adds {@code delta} to the count of every layer which {@code flags} belongs to.
      *
-     * @param pos    Position.
-     * @param offset Positional offset to apply.
-     * @return An instance of {@link EntityCell}, or {@code null} if the resulting position does not contain an entity
-     * cell.
+     * @param flags The layer flags of a cell.
+     * @param delta The amount to add.
      */
-    @Nullable
-    private Position getEntityCellByOffset(@NotNull final Position pos, @NotNull final PositionOffset offset) {
-        final var newPos = pos.offsetByOrNull(offset, getNumRows(), getNumCols());
-        if (newPos == null) {
-            return null;
+    private void addToLayerCounts(final byte flags, final int delta) {
+        for (int bits = flags & 0xFF; bits != 0; bits &= bits - 1) {
+            layerCounts[Integer.numberOfTrailingZeros(bits)] += delta;
         }
-        if (getCell(newPos) instanceof Wall) {
-            return null;
+    }
+
+    /**
+     * Computes the Zobrist hash of this game board from scratch.
+     *
+     * @return The XOR of the dimensions of this game board, and the keys of every layer of every cell.
+     */
+    private long computeZobristHash() {
+        var hash = mix(((long) numRows << Integer.SIZE) | numCols);
+        for (int i = 0; i < layers.size(); ++i) {
+            final var flags = layers.get(i);
+            for (int bits = flags & ~BoardLayers.PLAYER & 0xFF; bits != 0; bits &= bits - 1) {
+                hash ^= zobristKey(i, (byte) Integer.lowestOneBit(bits), -1);
+            }
+            if ((flags & BoardLayers.PLAYER) != 0 && cachedCell(i) instanceof EntityCell entityCell) {
+                hash ^= entityKey(i, BoardLayers.PLAYER, entityCell.getEntity());
+            }
         }
+        return hash;
+    }
 
-        return newPos;
+    /**
+     * @param index  Row-major index of a cell.
+     * @param layer  The entity layer of the cell, or {@code 0} if the cell does not contain an entity.
+     * @param entity The entity in the cell.
+     * @return The Zobrist key of {@code entity} being in the cell, or {@code 0} if there is no entity.
+     */
+    private long entityKey(final int index, final byte layer, @Nullable final Entity entity) {
+        if (layer == 0) {
+            return 0;
+        }
+        return zobristKey(index, layer, layer == BoardLayers.PLAYER ? players.indexOf(entity) : -1);
     }
 
     /**
-     * Gets all {@link Position} of cells which the player can stop on from the cell of the {@code initialPosition}.
+     * Gets the Zobrist key of a cell belonging to a layer.
      *
      * <p>
-     * A cell is "stoppable" iff the player can stop on the cell with any combination of valid moves.
+     * Keys are derived from their arguments by a fixed mixing function instead of a random table, so that they are
+     * stable across game boards and runs, and take no memory.
      * </p>
      *
-     * @param initialPosition The starting position to get all stoppable cells.
-     * @return {@link List} of all positions stoppable from {@code initialPosition}.
+     * @param index      Row-major index of a cell.
+     * @param layer      A single layer of {@link BoardLayers}.
+     * @param playerSlot If {@code layer} is {@link BoardLayers#PLAYER}, the position of the player in
+     *                   {@link GameBoard#getPlayers()} when the game board is created; Otherwise {@code -1}.
+     * @return The Zobrist key.
      */
-    @NotNull
-    private List<Position> getAllStoppablePositions(@NotNull final Position initialPosition) {
-        Objects.requireNonNull(initialPosition);
+    public static long zobristKey(final int index, final byte layer, final int playerSlot) {
+        return mix(((long) index << 32) | ((long) (layer & 0xFF) << 16) | (playerSlot & 0xFFFF));
+    }
+
+    /**
+     * @param value A value.
+     * @return {@code value} scrambled by the finalizer of SplitMix64.
+     */
+    static long mix(final long value) {
+        var z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
 
-        final List<Position> allStoppablePos = new ArrayList<>();
-        final List<Position> posToTraverse = new ArrayList<>();
+    /**
+     * Binds a cell to this game board, so that changes to its entity are reflected in {@link GameBoard#layers}.
+     *
+     * @param cell The cell to bind.
+     */
+    private void attach(@NotNull final Cell cell) {
+        if (cell instanceof EntityCell entityCell) {
+            entityCell.board = this;
+        }
+    }
+
+    /**
+     * Updates the layers of the given cell after its entity has been replaced.
+     *
+     * <p>
+     * This method should only be called from {@link EntityCell#setEntity(Entity)}.
+     * </p>
+     *
+     * @param cell       The cell whose entity has been replaced.
+     * @param prevEntity The entity previously in the cell.
+     */
+    void onEntityChanged(@NotNull final EntityCell cell, @Nullable final Entity prevEntity) {
+        final var pos = cell.getPosition();
+        final var index = layers.indexOf(pos.row(), pos.col());
+        if (cachedCell(index) != cell) {
+            return;
+        }
 
-        posToTraverse.add(initialPosition);
+        final var prevFlags = layers.get(index);
+        layers.setEntity(index, BoardLayers.layerOf(cell.getEntity()));
+        final var newFlags = layers.get(index);
 
-        while (!posToTraverse.isEmpty()) {
-            final var nextPos = posToTraverse.remove(posToTraverse.size() - 1);
+        zobristHash ^= entityKey(index, (byte) (prevFlags & BoardLayers.ENTITY_MASK), prevEntity)
+                ^ entityKey(index, (byte) (newFlags & BoardLayers.ENTITY_MASK), cell.getEntity());
 
-            if (!(getCell(nextPos) instanceof EntityCell)) {
-                continue;
+        if (prevFlags != newFlags) {
+            if (lastSnapshot != null) {
+                dirtyChunks.set(BoardSnapshot.chunkOf(numCols, index));
             }
-            if (allStoppablePos.contains(nextPos)) {
-                continue;
+            addToLayerCounts(prevFlags, -1);
+            addToLayerCounts(newFlags, 1);
+
+            for (final var listener : layerListeners) {
+                listener.onLayerChanged(index, prevFlags, newFlags);
             }
-            allStoppablePos.add(nextPos);
-
-            for (@NotNull final var dir : Direction.values()) {
-                for (int i = 0; i < Math.max(getNumRows(), getNumCols()); ++i) {
-                    final var posOffset = new PositionOffset(dir.getRowOffset() * i, dir.getColOffset() * i);
-                    final var posToAdd = getEntityCellByOffset(nextPos, posOffset);
-
-                    if (posToAdd == null) {
-                        final var maxDist = i - 1;
-                        if (maxDist > 0) {
-                            final var posOffsetBeforeThis = new PositionOffset(
-                                    dir.getRowOffset() * maxDist,
-                                    dir.getColOffset() * maxDist
-                            );
-                            final var posBeforeThis = getEntityCellByOffset(nextPos, posOffsetBeforeThis);
-
-                            if (posBeforeThis != null && !posToTraverse.contains(posBeforeThis)) {
-                                posToTraverse.add(posBeforeThis);
-                            }
-                        }
-
-                        break;
-                    }
-
-                    if (getCell(posToAdd) instanceof StopCell || isBorderCell(posToAdd, dir)) {
-                        posToTraverse.add(posToAdd);
-                    }
-                }
+        }
+    }
+
+    /**
+     * Registers a listener to be notified when the layers of a cell have changed.
+     *
+     * @param listener The listener to register.
+     */
+    public void addLayerListener(@NotNull final LayerListener listener) {
+        layerListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Unregisters a listener previously registered by {@link GameBoard#addLayerListener(LayerListener)}.
+     *
+     * @param listener The listener to unregister.
+     */
+    public void removeLayerListener(@NotNull final LayerListener listener) {
+        layerListeners.remove(listener);
+    }
+
+    /**
+     * Checks that a single player exists on the game board, and returns the instance of the player.
+     *
+     * @return The single instance of player on the game board.
+     * @throws IllegalArgumentException if the game board has zero, or more than one player entities.
+     */
+    @NotNull
+    public List<Player> getPlayers() {
+        var players = new ArrayList<Player>();
+        for (int i = 0; i < layers.size(); ++i) {
+            if (layers.has(i, BoardLayers.PLAYER)
+                    && cachedCell(i) instanceof EntityCell ec && ec.getEntity() instanceof Player p) {
+                players.add(p);
             }
         }
 
-        return Collections.unmodifiableList(allStoppablePos);
+        if (players.size() == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return players;
     }
 
     /**
-     * Gets all {@link Position} of cells which are reachable from the cell of the {@code initialPosition}.
+     * Computes the maximal runs of non-wall cells in every row and column of the game board.
      *
      * <p>
-     * A cell is reachable iff the player can move over the cell with any combination of valid moves.
+     * A run is identified by the row-major index of its first cell, i.e. the leftmost cell of a row run or the topmost
+     * cell of a column run.
      * </p>
      *
-     * @param initialPosition The starting position to get all reachable cells.
-     * @return {@link List} of all positions reachable from {@code initialPosition}.
+     * @param rowRuns Output array, which is filled with the row run each cell belongs to.
+     * @param colRuns Output array, which is filled with the column run each cell belongs to.
      */
-    @NotNull
-    private List<Position> getAllReachablePositions(@NotNull final Position initialPosition) {
-        Objects.requireNonNull(initialPosition);
-
-        final List<Position> allReachablePos = new ArrayList<>();
-        final List<Position> allStoppablePos = getAllStoppablePositions(initialPosition);
-
-        for (@NotNull final var reachablePos : allStoppablePos) {
-            for (@NotNull final var dir : Direction.values()) {
-                for (int i = 0; i < Math.max(getNumRows(), getNumCols()); ++i) {
-                    final var posOffset = new PositionOffset(dir.getRowOffset() * i, dir.getColOffset() * i);
-                    final var posToAdd = getEntityCellByOffset(reachablePos, posOffset);
-                    if (posToAdd == null) {
-                        break;
-                    }
-
-                    if (!allReachablePos.contains(posToAdd)) {
-                        allReachablePos.add(posToAdd);
-                    }
+    private void computeRuns(@NotNull final int[] rowRuns, @NotNull final int[] colRuns) {
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                final var index = layers.indexOf(r, c);
+                if (layers.has(index, BoardLayers.WALL)) {
+                    rowRuns[index] = -1;
+                    colRuns[index] = -1;
+                    continue;
                 }
+
+                final var left = index - 1;
+                final var up = index - numCols;
+                rowRuns[index] = c > 0 && !layers.has(left, BoardLayers.WALL) ? rowRuns[left] : index;
+                colRuns[index] = r > 0 && !layers.has(up, BoardLayers.WALL) ? colRuns[up] : index;
             }
         }
-
-        return Collections.unmodifiableList(allReachablePos);
     }
 
     /**
-     * Checks whether the given cell is a border cell with reference to the direction.
+     * Marks all cells which are stoppable from the cell at {@code initialIndex}, and all runs containing them.
+     *
+     * <p>
+     * A cell is "stoppable" iff the player can stop on the cell with any combination of valid moves. Once the player
+     * can stop on a cell, it can slide to both ends of the row run and column run containing the cell, as well as every
+     * {@link StopCell} in these runs. The search is therefore a breadth-first search over runs, in which every run is
+     * scanned at most once.
+     * </p>
      *
-     * @param cellPos The position of the cell.
-     * @param dir     The direction is moving at.
-     * @return {@code true} if the cell at the specified position is a border cell, i.e. the last cell in the game board
-     * before going out of bounds in the given direction.
+     * @param initialIndex    Row-major index of the starting cell.
+     * @param rowRuns         The row run of each cell, as computed by {@link GameBoard#computeRuns(int[], int[])}.
+     * @param colRuns         The column run of each cell, as computed by {@link GameBoard#computeRuns(int[], int[])}.
+     * @param stoppable       Output bitset of stoppable cells.
+     * @param visitedRowRuns  Output bitset of row runs containing a stoppable cell, keyed by the run.
+     * @param visitedColRuns  Output bitset of column runs containing a stoppable cell, keyed by the run.
+     * @param queue           Scratch buffer with at least one element for each cell.
      */
-    private boolean isBorderCell(@NotNull final Position cellPos, @NotNull final Direction dir) {
-        return switch (dir) {
-            case UP -> cellPos.row() == 0;
-            case DOWN -> cellPos.row() == getNumRows() - 1;
-            case LEFT -> cellPos.col() == 0;
-            case RIGHT -> cellPos.col() == getNumCols() - 1;
-        };
+    private void markStoppable(final int initialIndex,
+                               @NotNull final int[] rowRuns,
+                               @NotNull final int[] colRuns,
+                               @NotNull final BitSet stoppable,
+                               @NotNull final BitSet visitedRowRuns,
+                               @NotNull final BitSet visitedColRuns,
+                               @NotNull final int[] queue) {
+        var head = 0;
+        var tail = 0;
+
+        stoppable.set(initialIndex);
+        queue[tail++] = initialIndex;
+
+        while (head < tail) {
+            final var index = queue[head++];
+
+            final var rowRun = rowRuns[index];
+            if (!visitedRowRuns.get(rowRun)) {
+                visitedRowRuns.set(rowRun);
+                tail = enqueueStoppableInRun(rowRun, 1, numCols - layers.colOf(rowRun), stoppable, queue, tail);
+            }
+
+            final var colRun = colRuns[index];
+            if (!visitedColRuns.get(colRun)) {
+                visitedColRuns.set(colRun);
+                tail = enqueueStoppableInRun(colRun, numCols, numRows - layers.rowOf(colRun), stoppable, queue, tail);
+            }
+        }
     }
 
     /**
-     * Checks whether all gems are reachable from the player's initial position.
+     * Enqueues all cells of a run which the player can stop on, i.e. both ends of the run and all {@link StopCell}s.
      *
-     * @return {@code true} if all gems are reachable.
+     * @param start     Row-major index of the first cell of the run.
+     * @param step      Difference of index between adjacent cells of the run.
+     * @param maxLength Maximum length of the run before going out of bounds.
+     * @param stoppable Bitset of stoppable cells, which are not enqueued again.
+     * @param queue     The queue to append to.
+     * @param tail      The current tail of {@code queue}.
+     * @return The new tail of {@code queue}.
      */
-    private boolean isAllGemsReachable() {
-        for (var player : players) {
-            if (!isAllGemsReachableFor(player)) {
-                return false;
+    private int enqueueStoppableInRun(final int start,
+                                      final int step,
+                                      final int maxLength,
+                                      @NotNull final BitSet stoppable,
+                                      @NotNull final int[] queue,
+                                      int tail) {
+        var last = start;
+        for (int i = 0, index = start; i < maxLength && !layers.has(index, BoardLayers.WALL); ++i, index += step) {
+            if ((index == start || layers.has(index, BoardLayers.STOP)) && !stoppable.get(index)) {
+                stoppable.set(index);
+                queue[tail++] = index;
             }
+            last = index;
         }
-        return true;
+
+        if (!stoppable.get(last)) {
+            stoppable.set(last);
+            queue[tail++] = last;
+        }
+        return tail;
     }
 
-    private boolean isAllGemsReachableFor(Player player) {
+    /**
+     * Checks whether all gems are reachable from the initial position of every player.
+     *
+     * <p>
+     * A cell is reachable iff the player can move over the cell with any combination of valid moves, i.e. the cell
+     * belongs to a row run or column run containing a stoppable cell. The runs of the game board and the scratch
+     * buffers are shared by all players.
+     * </p>
+     *
+     * @return {@code true} if all gems are reachable.
+     */
+    private boolean isAllGemsReachable() {
+        final var rowRuns = new int[layers.size()];
+        final var colRuns = new int[layers.size()];
+        computeRuns(rowRuns, colRuns);
+
+        final var stoppable = new BitSet(layers.size());
+        final var visitedRowRuns = new BitSet(layers.size());
+        final var visitedColRuns = new BitSet(layers.size());
+        final var queue = new int[layers.size()];
         final var expectedNumOfGems = getNumGems();
-        final var initialPosition = Objects.requireNonNull(player.getOwner()).getPosition();
-        final var playerReachableCells = getAllReachablePositions(initialPosition);
-
-        int actualNumOfGems = 0;
-        for (final var pos : playerReachableCells) {
-            final var cell = getCell(pos);
-            if (cell instanceof EntityCell ec && ec.getEntity() instanceof Gem) {
-                ++actualNumOfGems;
+
+        for (final var player : players) {
+            final var initialPosition = Objects.requireNonNull(player.getOwner()).getPosition();
+
+            stoppable.clear();
+            visitedRowRuns.clear();
+            visitedColRuns.clear();
+            markStoppable(layers.indexOf(initialPosition.row(), initialPosition.col()),
+                    rowRuns, colRuns, stoppable, visitedRowRuns, visitedColRuns, queue);
+
+            int actualNumOfGems = 0;
+            for (int i = 0; i < layers.size(); ++i) {
+                if (layers.has(i, BoardLayers.GEM)
+                        && (visitedRowRuns.get(rowRuns[i]) || visitedColRuns.get(colRuns[i]))) {
+                    ++actualNumOfGems;
+                }
             }
-        }
 
-        return expectedNumOfGems == actualNumOfGems;
+            if (actualNumOfGems != expectedNumOfGems) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -273,7 +644,13 @@ public final class GameBoard {
      */
     @NotNull
     public Cell[] getRow(final int r) {
-        return board[r];
+        final var row = new Cell[numCols];
+
+        for (int c = 0; c < getNumCols(); ++c) {
+            row[c] = getCell(r, c);
+        }
+
+        return row;
     }
 
     /**
@@ -303,7 +680,68 @@ public final class GameBoard {
      */
     @NotNull
     public Cell getCell(final int r, final int c) {
-        return board[r][c];
+        Objects.checkIndex(r, numRows);
+        Objects.checkIndex(c, numCols);
+
+        final var index = layers.indexOf(r, c);
+        final var cell = cachedCell(index);
+        if (cell != null) {
+            return cell;
+        }
+        return cacheCell(index, createCell(index));
+    }
+
+    /**
+     * @param index Row-major index of a cell.
+     * @return The cached {@link Cell} instance of the cell, or {@code null} if it has not been created or has been
+     * collected.
+     */
+    @Nullable
+    private Cell cachedCell(final int index) {
+        final var reference = cells.get(index);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Caches a {@link Cell} instance, unless another instance of the cell is already cached.
+     *
+     * @param index Row-major index of the cell.
+     * @param cell  The new instance of the cell.
+     * @return The cached instance of the cell.
+     */
+    @NotNull
+    private Cell cacheCell(final int index, @NotNull final Cell cell) {
+        for (Reference<? extends Cell> collected; (collected = collectedCells.poll()) != null; ) {
+            cells.remove(((CellReference) collected).index, collected);
+        }
+
+        final var reference = new CellReference(cell, index, collectedCells);
+        while (true) {
+            final var prevReference = cells.putIfAbsent(index, reference);
+            if (prevReference == null) {
+                return cell;
+            }
+            final var prevCell = prevReference.get();
+            if (prevCell != null) {
+                return prevCell;
+            }
+            if (cells.replace(index, prevReference, reference)) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Returns a single cell of the game board.
+     *
+     * @param index Row-major index of the cell.
+     * @return The {@link Cell} instance at the specified location.
+     */
+    @NotNull
+    public Cell getCell(final int index) {
+        Objects.checkIndex(index, layers.size());
+
+        return getCell(layers.rowOf(index), layers.colOf(index));
     }
 
     /**
@@ -341,6 +779,24 @@ public final class GameBoard {
         return entityCell;
     }
 
+    /**
+     * Returns an {@link EntityCell} on the game board.
+     *
+     * <p>
+     * This method is a convenience method for getting a cell which is unconditionally known to be an entity cell.
+     * </p>
+     *
+     * @param index Row-major index of the cell.
+     * @return The {@link EntityCell} instance at the specified location.
+     * @throws IllegalArgumentException if the cell at the specified position is not an instance of {@link EntityCell}.
+     */
+    @NotNull
+    public EntityCell getEntityCell(final int index) {
+        Objects.checkIndex(index, layers.size());
+
+        return getEntityCell(layers.rowOf(index), layers.colOf(index));
+    }
+
     /**
      * Returns an {@link EntityCell} on the game board.
      *
@@ -357,6 +813,51 @@ public final class GameBoard {
         return getEntityCell(position.row(), position.col());
     }
 
+    /**
+     * Returns the cached {@link Position} of a cell.
+     *
+     * <p>
+     * Positions are cached so that they can be handed out on hot paths (e.g. in {@link MoveResult}) without allocating.
+     * On game boards of at most {@link GameBoard#POSITION_CACHE_SIZE} cells, the same instance is returned for every
+     * call with the same index. On larger game boards, cells share the slots of the cache, so a new instance may be
+     * returned after the position of another cell is requested.
+     * </p>
+     *
+     * @param index Row-major index of the cell.
+     * @return The {@link Position} of the cell.
+     */
+    @NotNull
+    public Position getPosition(final int index) {
+        Objects.checkIndex(index, layers.size());
+
+        final var slot = index % positions.length();
+        final var position = positions.get(slot);
+        if (position != null && layers.indexOf(position.row(), position.col()) == index) {
+            return position;
+        }
+
+        final var newPosition = new Position(layers.rowOf(index), layers.colOf(index));
+        if (positions.compareAndSet(slot, position, newPosition)) {
+            return newPosition;
+        }
+        // Another thread has replaced the slot first, possibly with the same position
+        final var otherPosition = positions.get(slot);
+        return otherPosition != null && otherPosition.equals(newPosition) ? otherPosition : newPosition;
+    }
+
+    /**
+     * @param position A position on this game board.
+     * @return The row-major index of {@code position}.
+     * @throws IndexOutOfBoundsException if {@code position} is outside of this game board.
+     */
+    public int indexOf(@NotNull final Position position) {
+        Objects.requireNonNull(position);
+        Objects.checkIndex(position.row(), numRows);
+        Objects.checkIndex(position.col(), numCols);
+
+        return layers.indexOf(position.row(), position.col());
+    }
+
     /**
      * @return The number of rows of this game board.
      */
@@ -425,16 +926,162 @@ public final class GameBoard {
      * @return The number of gems still present in the game board.
      */
     public int getNumGems() {
-        var count = 0;
+        return getNumCells(BoardLayers.GEM);
+    }
 
-        for (final var row : board) {
-            for (final var cell : row) {
-                if (cell instanceof EntityCell ec && ec.getEntity() instanceof Gem) {
-                    count++;
-                }
+    /**
+     * Returns the number of cells in a layer, e.g. {@code getNumCells(BoardLayers.PLAYER)} is the number of players
+     * still present in the game board.
+     *
+     * <p>
+     * The counts are maintained as entities are changed, so this method takes constant time.
+     * </p>
+     *
+     * @param layer A single layer of {@link BoardLayers}.
+     * @return The number of cells in the game board belonging to {@code layer}.
+     * @throws IllegalArgumentException if {@code layer} is not a single layer.
+     */
+    public int getNumCells(final byte layer) {
+        if (Integer.bitCount(layer & 0xFF) != 1) {
+            throw new IllegalArgumentException();
+        }
+
+        return layerCounts[Integer.numberOfTrailingZeros(layer)];
+    }
+
+    /**
+     * Records the entities collected (or returned, if the amounts are negative) by a player in a move.
+     *
+     * <p>
+     * This method should be called by {@link hk.ust.cse.comp3021.pa3.controller.GameBoardController} whenever it
+     * removes collected entities from, or restores them to, the game board.
+     * </p>
+     *
+     * @param playerId        The id of the player.
+     * @param deltaGems       The change in the number of gems collected by the player.
+     * @param deltaExtraLives The change in the number of extra lives collected by the player.
+     * @throws IllegalArgumentException if the player with the id does not exist.
+     */
+    public void addCollected(final int playerId, final int deltaGems, final int deltaExtraLives) {
+        final var i = indexOfPlayer(playerId);
+        collectedGems[i] += deltaGems;
+        collectedExtraLives[i] += deltaExtraLives;
+    }
+
+    /**
+     * @param playerId The id of the player.
+     * @return The number of gems collected by the player and still not returned by an undo.
+     * @throws IllegalArgumentException if the player with the id does not exist.
+     */
+    public int getNumCollectedGems(final int playerId) {
+        return collectedGems[indexOfPlayer(playerId)];
+    }
+
+    /**
+     * @param playerId The id of the player.
+     * @return The number of extra lives collected by the player and still not returned by an undo.
+     * @throws IllegalArgumentException if the player with the id does not exist.
+     */
+    public int getNumCollectedExtraLives(final int playerId) {
+        return collectedExtraLives[indexOfPlayer(playerId)];
+    }
+
+    /**
+     * @param player A player.
+     * @return The slot of the player in the {@link BoardSnapshot}s of this game board, i.e. its position in
+     * {@link GameBoard#players}, or {@code -1} if the player is not on this game board.
+     */
+    public int slotOf(@NotNull final Player player) {
+        return players.indexOf(player);
+    }
+
+    /**
+     * @param playerId The id of the player.
+     * @return The position of the player in {@link GameBoard#players}.
+     * @throws IllegalArgumentException if the player with the id does not exist.
+     */
+    private int indexOfPlayer(final int playerId) {
+        for (int i = 0; i < players.size(); ++i) {
+            if (players.get(i).getId() == playerId) {
+                return i;
             }
         }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Gets the lock of this game board.
+     *
+     * <p>
+     * The lock should be held when performing any sequence of reads and mutations of this game board which should
+     * appear atomic to other threads, e.g. resolving and making a move. The lock is reentrant.
+     * </p>
+     *
+     * @return The {@link Lock} of this game board.
+     */
+    @NotNull
+    public Lock getLock() {
+        return lock;
+    }
 
-        return count;
+    /**
+     * Gets the Zobrist hash of the current state of this game board.
+     *
+     * <p>
+     * The hash covers the dimensions, the cells and the entities of this game board, including which player is in
+     * which cell. It is maintained in constant time per changed entity, and is stable across runs, so that equal states
+     * of game boards created from the same puzzle have equal hashes.
+     * </p>
+     *
+     * @return The 64-bit Zobrist hash.
+     */
+    public long getZobristHash() {
+        lock.lock();
+        try {
+            return zobristHash;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes an immutable snapshot of this game board, e.g. to search hypothetical moves without mutating it.
+     *
+     * <p>
+     * Only the chunks of rows which have changed since the previous snapshot are copied, and the rest are shared with
+     * the previous snapshot. If nothing has changed, the previous snapshot is returned.
+     * </p>
+     *
+     * @return The snapshot of the current state of this game board.
+     */
+    @NotNull
+    public BoardSnapshot snapshot() {
+        lock.lock();
+        try {
+            final var previous = lastSnapshot;
+            if (previous != null && dirtyChunks.isEmpty() && previous.getZobristHash() == zobristHash) {
+                return previous;
+            }
+
+            final var playerIndices = new int[players.size()];
+            for (int i = 0; i < playerIndices.length; ++i) {
+                final var owner = players.get(i).getOwner();
+                playerIndices[i] = owner != null ? indexOf(owner.getPosition()) : BoardLayers.NONE;
+            }
+
+            lastSnapshot = BoardSnapshot.of(previous, layers, dirtyChunks, playerIndices, getNumGems(), zobristHash);
+            dirtyChunks.clear();
+            return lastSnapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The primitive layers backing this game board. The returned instance should be treated as read-only.
+     */
+    @NotNull
+    public BoardLayers getLayers() {
+        return layers;
     }
 }
@@ -3,6 +3,7 @@ package hk.ust.cse.comp3021.pa3.model;
 import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -35,6 +36,13 @@ public class GameState {
     @NotNull
     private final MoveStack moveStack = new MoveStack();
 
+    /**
+     * The controller of {@link GameState#gameBoard} used for mutations, which resolves moves cell-by-cell unless
+     * replaced by {@link GameState#setGameBoardController(GameBoardController)}.
+     */
+    @NotNull
+    private volatile GameBoardController gameBoardController;
+
     /**
      * The number of deaths of the player.
      */
@@ -118,6 +126,7 @@ public class GameState {
         this.player = Objects.requireNonNull(player);
         this.numLives = numLives;
         player.setGameState(this);
+        this.gameBoardController = new GameBoardController(gameBoard);
 
         this.initialNumOfGems = this.gameBoard.getNumGems();
     }
@@ -218,6 +227,30 @@ public class GameState {
         return (++numDeaths);
     }
 
+    /**
+     * Overwrites the statistics of the player, e.g. when restoring a saved game.
+     *
+     * <p>
+     * The moves in the {@link MoveStack} should be restored separately by {@link MoveStack#push(MoveResult)}.
+     * </p>
+     *
+     * @param numMoves   The number of moves taken by the player.
+     * @param numDeaths  The number of deaths of the player.
+     * @param numGotGems The number of gems got by the player.
+     * @param popCount   The number of undoes of the player.
+     * @throws IllegalArgumentException if any of the values is negative.
+     */
+    public void restoreStatistics(final int numMoves, final int numDeaths, final int numGotGems, final int popCount) {
+        if (numMoves < 0 || numDeaths < 0 || numGotGems < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.numMoves = numMoves;
+        this.numDeaths = numDeaths;
+        this.numGotGems = numGotGems;
+        this.moveStack.setPopCount(popCount);
+    }
+
     /**
      * @return The current number of deaths of the player.
      */
@@ -283,10 +316,24 @@ public class GameState {
     }
 
     /**
-     * @return A controller of the managed game board for mutation.
+     * @return A controller of the managed game board for mutation. The same instance is returned on every call.
      */
     public GameBoardController getGameBoardController() {
-        return new GameBoardController(getGameBoard());
+        return gameBoardController;
+    }
+
+    /**
+     * Replaces the controller of the managed game board, e.g. with one backed by a
+     * {@link hk.ust.cse.comp3021.pa3.controller.SlideTable}.
+     *
+     * @param gameBoardController The controller to use for mutations.
+     * @throws IllegalArgumentException if {@code gameBoardController} does not control the managed game board.
+     */
+    public void setGameBoardController(@NotNull final GameBoardController gameBoardController) {
+        if (gameBoardController.getGameBoard() != gameBoard) {
+            throw new IllegalArgumentException();
+        }
+        this.gameBoardController = gameBoardController;
     }
 
 
@@ -298,6 +345,22 @@ public class GameState {
         return gameBoard;
     }
 
+    /**
+     * Gets the Zobrist hash of this game state.
+     *
+     * <p>
+     * The hash combines {@link GameBoard#getZobristHash()} with the player this game state belongs to and its number of
+     * lives, which are everything affecting the outcome of future moves. Statistics such as the number of moves made
+     * are not part of the hash, so that the same state reached by different sequences of moves has the same hash.
+     * </p>
+     *
+     * @return The 64-bit Zobrist hash.
+     */
+    public long getZobristHash() {
+        final var slot = gameBoard.slotOf(player);
+        return gameBoard.getZobristHash() ^ GameBoard.mix(((long) slot << Integer.SIZE) | (numLives & 0xFFFFFFFFL));
+    }
+
     /**
      * @return The instance of the managed {@link MoveStack}.
      */
@@ -306,6 +369,28 @@ public class GameState {
         return moveStack;
     }
 
+    /**
+     * @return An unmodifiable list of the moves in the {@link MoveStack}, from the earliest to the latest.
+     */
+    @NotNull
+    public List<MoveResult> getStackedMoves() {
+        return moveStack.asList();
+    }
+
+    /**
+     * Takes a snapshot of the moves in the {@link MoveStack}, e.g. to explore alternative histories.
+     *
+     * <p>
+     * The snapshot should be closed once it is no longer needed, so that its spill file is released promptly.
+     * </p>
+     *
+     * @return A compact copy of the moves which is independent of this game state, and which can be forked cheaply.
+     */
+    @NotNull
+    public MoveLog snapshotMoveHistory() {
+        return moveStack.snapshot();
+    }
+
     /**
      * Get the {@link Player} that this instance corresponds to.
      *
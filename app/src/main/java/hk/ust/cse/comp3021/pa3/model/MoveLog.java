@@ -0,0 +1,675 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact, persistent log of {@link MoveResult.Valid.Alive} moves with stack semantics.
+ *
+ * <p>
+ * Instead of keeping a {@link MoveResult} object (and its lists of positions) for every move, each move is encoded
+ * into a byte array as a record of zigzag varints:
+ * </p>
+ * <ol>
+ *     <li>The original position, relative to the new position of the previous move (usually {@code (0, 0)}).</li>
+ *     <li>The new position, relative to the original position.</li>
+ *     <li>The number of collected gems, followed by their positions relative to the original position.</li>
+ *     <li>The number of collected extra lives, followed by their positions relative to the original position.</li>
+ *     <li>The length of the record, written backwards so that the top record can be found from the end.</li>
+ * </ol>
+ * <p>
+ * Records are appended to a mutable tail, which is sealed into an immutable chunk once it reaches
+ * {@link MoveLog#CHUNK_SIZE} bytes. Chunks form a linked list shared between forks, so {@link MoveLog#fork()} takes
+ * constant time; the tail is copied lazily by whichever fork appends to it first. When the chunks held in memory
+ * exceed the capacity of the log, the oldest ones are spilled to a temporary file, and read back when they are popped.
+ * </p>
+ * <p>
+ * This class is not thread-safe, although forks can be used by different threads independently.
+ * </p>
+ * <p>
+ * The spill file is closed and deleted once the log and all of its forks are closed, or have become unreachable if
+ * they are not closed explicitly.
+ * </p>
+ */
+public final class MoveLog implements Closeable {
+
+    /**
+     * The size of a sealed chunk in bytes.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The default maximum number of bytes of sealed chunks kept in memory.
+     */
+    public static final long DEFAULT_CAPACITY = 16L * 1024 * 1024;
+
+    /**
+     * Releases the spill files of logs which become unreachable without being closed.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * An immutable, sealed run of records.
+     */
+    private static final class Chunk {
+
+        /**
+         * The chunk sealed before this one, or {@code null} if this is the oldest chunk.
+         */
+        @Nullable
+        final Chunk previous;
+
+        /**
+         * The number of bytes of records in this chunk.
+         */
+        final int length;
+
+        /**
+         * The records, or {@code null} if the chunk has been spilled.
+         */
+        @Nullable
+        private byte[] data;
+
+        /**
+         * The offset of the records in the spill file, if the chunk has been spilled.
+         */
+        private long spillOffset = -1;
+
+        Chunk(@Nullable final Chunk previous, @NotNull final byte[] data, final int length) {
+            this.previous = previous;
+            this.data = data;
+            this.length = length;
+        }
+
+        synchronized boolean isSpilled() {
+            return data == null;
+        }
+
+        /**
+         * Moves the records of this chunk to the spill file.
+         *
+         * @param spillFile The spill file.
+         */
+        synchronized void spill(@NotNull final SpillFile spillFile) {
+            if (data != null) {
+                spillOffset = spillFile.append(data, length);
+                data = null;
+            }
+        }
+
+        /**
+         * @param spillFile The spill file, used if the chunk has been spilled.
+         * @return A new copy of the records of this chunk, with at least {@link MoveLog#CHUNK_SIZE} bytes.
+         */
+        @NotNull
+        synchronized byte[] copyData(@NotNull final SpillFile spillFile) {
+            if (data != null) {
+                return Arrays.copyOf(data, Math.max(CHUNK_SIZE, length));
+            }
+            return Arrays.copyOf(spillFile.read(spillOffset, length), Math.max(CHUNK_SIZE, length));
+        }
+    }
+
+    /**
+     * An append-only temporary file holding spilled chunks, shared by a log and its forks.
+     *
+     * <p>
+     * The file is created on the first spill, and closed (which deletes it) once every log sharing it has released it.
+     * </p>
+     */
+    private static final class SpillFile {
+
+        @Nullable
+        private FileChannel channel = null;
+
+        private long size = 0;
+
+        /**
+         * The number of logs sharing this file which have not released it.
+         */
+        private int numOwners = 0;
+
+        synchronized boolean isOpen() {
+            return channel != null;
+        }
+
+        synchronized void acquire() {
+            ++numOwners;
+        }
+
+        synchronized void release() {
+            if (--numOwners > 0 || channel == null) {
+                return;
+            }
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                channel = null;
+            }
+        }
+
+        synchronized long append(@NotNull final byte[] data, final int length) {
+            try {
+                if (channel == null) {
+                    final var file = Files.createTempFile("move-log", ".bin");
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                            StandardOpenOption.DELETE_ON_CLOSE);
+                }
+
+                final var offset = size;
+                final var buffer = ByteBuffer.wrap(data, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+                size += length;
+                return offset;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @NotNull
+        synchronized byte[] read(final long offset, final int length) {
+            assert channel != null;
+
+            try {
+                final var buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of spill file");
+                    }
+                }
+                return buffer.array();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * The maximum number of bytes of sealed chunks kept in memory.
+     */
+    private final long capacity;
+
+    @NotNull
+    private final SpillFile spillFile;
+
+    /**
+     * Releases {@link MoveLog#spillFile} when this log is closed or becomes unreachable.
+     */
+    @NotNull
+    private final Cleaner.Cleanable cleanable;
+
+    /**
+     * The most recently sealed chunk, or {@code null} if there is no sealed chunk.
+     */
+    @Nullable
+    private Chunk sealed;
+
+    /**
+     * Records appended after {@link MoveLog#sealed}.
+     */
+    @NotNull
+    private byte[] tail;
+
+    /**
+     * The number of bytes of records in {@link MoveLog#tail}.
+     */
+    private int tailLength;
+
+    /**
+     * Whether {@link MoveLog#tail} may be shared with a fork, in which case it must be copied before appending.
+     */
+    private boolean tailShared;
+
+    private int size;
+
+    /**
+     * The new position of the topmost move, or {@code (0, 0)} if the log is empty.
+     */
+    private int headRow;
+
+    /**
+     * The new position of the topmost move, or {@code (0, 0)} if the log is empty.
+     */
+    private int headCol;
+
+    /**
+     * Creates an empty log with {@link MoveLog#DEFAULT_CAPACITY}.
+     */
+    public MoveLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity The maximum number of bytes of sealed chunks kept in memory before they are spilled to disk.
+     * @throws IllegalArgumentException if {@code capacity} is negative.
+     */
+    public MoveLog(final long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.capacity = capacity;
+        this.spillFile = new SpillFile();
+        this.cleanable = register(this, spillFile);
+        this.sealed = null;
+        this.tail = new byte[CHUNK_SIZE];
+        this.tailLength = 0;
+        this.tailShared = false;
+        this.size = 0;
+    }
+
+    /**
+     * Creates a fork of another log.
+     *
+     * @param other The log to fork.
+     */
+    private MoveLog(@NotNull final MoveLog other) {
+        this.capacity = other.capacity;
+        this.spillFile = other.spillFile;
+        this.cleanable = register(this, spillFile);
+        this.sealed = other.sealed;
+        this.tail = other.tail;
+        this.tailLength = other.tailLength;
+        this.tailShared = true;
+        this.size = other.size;
+        this.headRow = other.headRow;
+        this.headCol = other.headCol;
+    }
+
+    /**
+     * Registers a log as an owner of its spill file.
+     *
+     * @param moveLog   The log.
+     * @param spillFile The spill file of the log.
+     * @return The action releasing the spill file.
+     */
+    @NotNull
+    private static Cleaner.Cleanable register(@NotNull final MoveLog moveLog, @NotNull final SpillFile spillFile) {
+        spillFile.acquire();
+        // The action must not refer to the log, otherwise the log never becomes unreachable
+        return CLEANER.register(moveLog, spillFile::release);
+    }
+
+    /**
+     * Releases the spill file of this log, which is closed once all forks sharing it are closed. This log must not be
+     * used afterwards. Closing a log more than once has no effect.
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    /**
+     * @return Whether the spill file of this log has been created and not closed yet.
+     */
+    boolean isSpillFileOpen() {
+        return spillFile.isOpen();
+    }
+
+    /**
+     * Creates an independent copy of this log in constant time.
+     *
+     * <p>
+     * The fork shares the history of this log, and both logs can be modified afterwards without affecting each other.
+     * </p>
+     *
+     * @return The fork.
+     */
+    @NotNull
+    public MoveLog fork() {
+        tailShared = true;
+        return new MoveLog(this);
+    }
+
+    /**
+     * @return The number of moves in this log.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Whether this log is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a move to the top of this log.
+     *
+     * @param move The move to append.
+     */
+    public void push(@NotNull final MoveResult.Valid.Alive move) {
+        final var orig = move.origPosition;
+        final var next = move.newPosition;
+        assert next != null;
+
+        final var record = new RecordWriter();
+        record.writeSigned(orig.row() - headRow);
+        record.writeSigned(orig.col() - headCol);
+        record.writeSigned(next.row() - orig.row());
+        record.writeSigned(next.col() - orig.col());
+        record.writePositions(move.collectedGems, orig);
+        record.writePositions(move.collectedExtraLives, orig);
+        record.writeLengthBackwards();
+
+        if (tailLength > 0 && tailLength + record.length > CHUNK_SIZE) {
+            seal();
+        }
+        if (tailShared || tailLength + record.length > tail.length) {
+            tail = Arrays.copyOf(tail, Math.max(CHUNK_SIZE, tailLength + record.length));
+            tailShared = false;
+        }
+        System.arraycopy(record.bytes, 0, tail, tailLength, record.length);
+        tailLength += record.length;
+
+        headRow = next.row();
+        headCol = next.col();
+        ++size;
+    }
+
+    /**
+     * @return The move at the top of this log.
+     * @throws NoSuchElementException if this log is empty.
+     */
+    @NotNull
+    public MoveResult.Valid.Alive peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        loadTailIfEmpty();
+
+        return decodeTop().move;
+    }
+
+    /**
+     * Removes the move at the top of this log.
+     *
+     * @return The removed move.
+     * @throws NoSuchElementException if this log is empty.
+     */
+    @NotNull
+    public MoveResult.Valid.Alive pop() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        loadTailIfEmpty();
+
+        final var top = decodeTop();
+        tailLength = top.start;
+        headRow = top.move.origPosition.row() - top.dRow;
+        headCol = top.move.origPosition.col() - top.dCol;
+        --size;
+        return top.move;
+    }
+
+    /**
+     * Decodes every move in this log.
+     *
+     * @return The moves, from the bottom to the top of this log.
+     */
+    @NotNull
+    public List<MoveResult.Valid.Alive> toList() {
+        final var chunks = new ArrayList<byte[]>();
+        final var lengths = new ArrayList<Integer>();
+        chunks.add(tail);
+        lengths.add(tailLength);
+        for (var chunk = sealed; chunk != null; chunk = chunk.previous) {
+            chunks.add(chunk.copyData(spillFile));
+            lengths.add(chunk.length);
+        }
+
+        final var moves = new ArrayList<MoveResult.Valid.Alive>(size);
+        var prevRow = 0;
+        var prevCol = 0;
+        for (int i = chunks.size() - 1; i >= 0; --i) {
+            final var reader = new RecordReader(chunks.get(i), 0);
+            while (reader.offset < lengths.get(i)) {
+                final var start = reader.offset;
+                final var origRow = prevRow + reader.readSigned();
+                final var origCol = prevCol + reader.readSigned();
+                final var move = reader.readMove(origRow, origCol);
+                reader.skipLengthBackwards(start);
+
+                moves.add(move);
+                prevRow = move.newPosition.row();
+                prevCol = move.newPosition.col();
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Seals the tail into a chunk, and spills the oldest chunks if the capacity is exceeded.
+     */
+    private void seal() {
+        sealed = new Chunk(sealed, tail, tailLength);
+        tail = new byte[CHUNK_SIZE];
+        tailLength = 0;
+        tailShared = false;
+
+        // Chunks are spilled from the oldest, so all chunks before a spilled chunk are also spilled
+        var inMemory = 0L;
+        for (var chunk = sealed; chunk != null && !chunk.isSpilled(); chunk = chunk.previous) {
+            inMemory += chunk.length;
+            if (inMemory > capacity) {
+                chunk.spill(spillFile);
+            }
+        }
+    }
+
+    /**
+     * Makes the most recently sealed chunk the tail if the tail is empty, so that the top record is in the tail.
+     */
+    private void loadTailIfEmpty() {
+        if (tailLength > 0) {
+            return;
+        }
+
+        final var chunk = sealed;
+        assert chunk != null;
+        tail = chunk.copyData(spillFile);
+        tailLength = chunk.length;
+        tailShared = false;
+        sealed = chunk.previous;
+    }
+
+    /**
+     * The top record of the log, decoded.
+     *
+     * @param move  The move.
+     * @param start The offset of the record in the tail.
+     * @param dRow  The original position of the move relative to the new position of the previous move.
+     * @param dCol  The original position of the move relative to the new position of the previous move.
+     */
+    private record Top(@NotNull MoveResult.Valid.Alive move, int start, int dRow, int dCol) {
+    }
+
+    /**
+     * @return The top record in the tail.
+     */
+    @NotNull
+    private Top decodeTop() {
+        // Read the length of the record backwards from the end of the tail, from the least significant group
+        var end = tailLength;
+        var recordLength = 0;
+        var shift = 0;
+        int b;
+        do {
+            b = tail[--end];
+            recordLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        final var start = end - recordLength;
+
+        final var reader = new RecordReader(tail, start);
+        final var dRow = reader.readSigned();
+        final var dCol = reader.readSigned();
+        final var movedOffset = reader.offset;
+
+        // The new position of the move is the head, so the original position is derived from it
+        final var origRow = headRow - reader.readSigned();
+        final var origCol = headCol - reader.readSigned();
+        reader.offset = movedOffset;
+
+        return new Top(reader.readMove(origRow, origCol), start, dRow, dCol);
+    }
+
+    /**
+     * @param recordLength The length of a record, excluding its length.
+     * @return The number of 7-bit groups the length is written in.
+     */
+    private static int numLengthGroups(final int recordLength) {
+        var numGroups = 1;
+        while ((recordLength >>> (7 * numGroups)) != 0) {
+            ++numGroups;
+        }
+        return numGroups;
+    }
+
+    /**
+     * Encoder of a single record.
+     */
+    private static final class RecordWriter {
+
+        @NotNull
+        byte[] bytes = new byte[32];
+
+        int length = 0;
+
+        void writeUnsigned(final int value) {
+            var v = value;
+            while ((v & ~0x7F) != 0) {
+                writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            writeByte(v);
+        }
+
+        void writeSigned(final int value) {
+            writeUnsigned((value << 1) ^ (value >> 31));
+        }
+
+        void writePositions(@NotNull final List<Position> positions, @NotNull final Position origin) {
+            writeUnsigned(positions.size());
+            for (final var position : positions) {
+                writeSigned(position.row() - origin.row());
+                writeSigned(position.col() - origin.col());
+            }
+        }
+
+        /**
+         * Appends the length of the record so far, such that it can be read backwards from the end of the record.
+         */
+        void writeLengthBackwards() {
+            final var recordLength = length;
+            // Split into 7-bit groups, most significant first; only the first group has the high bit clear, so that it
+            // terminates the groups when they are read backwards from the end of the record
+            final var numGroups = numLengthGroups(recordLength);
+            for (int i = numGroups - 1; i >= 0; --i) {
+                final var group = (recordLength >>> (7 * i)) & 0x7F;
+                writeByte(i == numGroups - 1 ? group : group | 0x80);
+            }
+        }
+
+        private void writeByte(final int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+    }
+
+    /**
+     * Decoder of records.
+     */
+    private static final class RecordReader {
+
+        @NotNull
+        private final byte[] bytes;
+
+        int offset;
+
+        RecordReader(@NotNull final byte[] bytes, final int offset) {
+            this.bytes = bytes;
+            this.offset = offset;
+        }
+
+        int readUnsigned() {
+            var value = 0;
+            var shift = 0;
+            int b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readSigned() {
+            final var v = readUnsigned();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        /**
+         * Reads the rest of a record after the original position.
+         *
+         * @param origRow The original position of the move.
+         * @param origCol The original position of the move.
+         * @return The move.
+         */
+        @NotNull
+        MoveResult.Valid.Alive readMove(final int origRow, final int origCol) {
+            final var orig = new Position(origRow, origCol);
+            final var next = new Position(origRow + readSigned(), origCol + readSigned());
+            final var gems = readPositions(orig);
+            final var extraLives = readPositions(orig);
+            return new MoveResult.Valid.Alive(next, orig, gems, extraLives);
+        }
+
+        @NotNull
+        private List<Position> readPositions(@NotNull final Position origin) {
+            final var numPositions = readUnsigned();
+            if (numPositions == 0) {
+                return List.of();
+            }
+
+            final var positions = new ArrayList<Position>(numPositions);
+            for (int i = 0; i < numPositions; ++i) {
+                positions.add(new Position(origin.row() + readSigned(), origin.col() + readSigned()));
+            }
+            return positions;
+        }
+
+        /**
+         * Skips the length written by {@link RecordWriter#writeLengthBackwards()}.
+         *
+         * @param start The offset of the record.
+         */
+        void skipLengthBackwards(final int start) {
+            // The groups cannot be delimited when read forwards, but their number follows from the length itself
+            offset += numLengthGroups(offset - start);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package hk.ust.cse.comp3021.pa3.model;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 
@@ -12,14 +15,50 @@ import java.util.Objects;
  * <p>A stack is a data structure which enforces Last-In First-Out (LIFO) ordering of its elements.</p>
  *
  * <p>You can read more about stacks <a href="https://en.wikipedia.org/wiki/Stack_(abstract_data_type)">here</a>.</p>
+ *
+ * <p>
+ * The most recent {@link MoveStack#RECENT_WINDOW_SIZE} moves are kept as-is, so that they are popped as the same
+ * instances which were pushed. Older moves are compacted into a {@link MoveLog}, and are decoded into new instances
+ * when they are popped.
+ * </p>
  */
 public class MoveStack {
 
+    /**
+     * The maximum number of moves kept as {@link MoveResult} instances.
+     */
+    static final int RECENT_WINDOW_SIZE = 64;
+
+    /**
+     * The most recent moves, with the topmost move at the end.
+     */
+    @NotNull
+    private final Deque<MoveResult> recentMoves = new ArrayDeque<>();
+
+    /**
+     * The moves older than {@link MoveStack#recentMoves}.
+     */
     @NotNull
-    private final List<MoveResult> moves = new ArrayList<>();
+    private final MoveLog olderMoves;
 
     private int popCount = 0;
 
+    /**
+     * Creates an empty stack.
+     */
+    public MoveStack() {
+        this(new MoveLog());
+    }
+
+    /**
+     * Creates a stack on top of existing moves.
+     *
+     * @param olderMoves The existing moves, which are owned by this stack afterwards.
+     */
+    MoveStack(@NotNull final MoveLog olderMoves) {
+        this.olderMoves = Objects.requireNonNull(olderMoves);
+    }
+
     /**
      * Pushes a move to this stack.
      *
@@ -36,14 +75,17 @@ public class MoveStack {
             throw new IllegalArgumentException();
         }
 
-        moves.add(move);
+        recentMoves.addLast(move);
+        if (recentMoves.size() > RECENT_WINDOW_SIZE) {
+            olderMoves.push((MoveResult.Valid.Alive) recentMoves.removeFirst());
+        }
     }
 
     /**
      * @return Whether the stack is currently empty.
      */
     public boolean isEmpty() {
-        return moves.isEmpty();
+        return recentMoves.isEmpty() && olderMoves.isEmpty();
     }
 
     /**
@@ -56,7 +98,7 @@ public class MoveStack {
         assert peek() instanceof MoveResult.Valid.Alive;
 
         ++popCount;
-        return moves.remove(moves.size() - 1);
+        return recentMoves.isEmpty() ? olderMoves.pop() : recentMoves.removeLast();
     }
 
     /**
@@ -66,6 +108,43 @@ public class MoveStack {
         return popCount;
     }
 
+    /**
+     * @return An unmodifiable list of the moves in this stack, from the bottom to the top.
+     */
+    @NotNull
+    List<MoveResult> asList() {
+        final var moves = new ArrayList<MoveResult>(olderMoves.size() + recentMoves.size());
+        moves.addAll(olderMoves.toList());
+        moves.addAll(recentMoves);
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * Takes a snapshot of the moves in this stack in constant time with respect to the number of older moves.
+     *
+     * @return A {@link MoveLog} containing the moves in this stack, which is independent of this stack.
+     */
+    @NotNull
+    MoveLog snapshot() {
+        final var snapshot = olderMoves.fork();
+        for (final var move : recentMoves) {
+            snapshot.push((MoveResult.Valid.Alive) move);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Overwrites the number of {@link MoveStack#pop} calls invoked, e.g. when restoring a saved game.
+     *
+     * @param popCount The number of pops.
+     */
+    void setPopCount(final int popCount) {
+        if (popCount < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.popCount = popCount;
+    }
+
     /**
      * Peeks the topmost of the element of the stack.
      *
@@ -79,7 +158,7 @@ public class MoveStack {
      */
     @NotNull
     public MoveResult peek() {
-        final var topmostMove = moves.get(moves.size() - 1);
+        final var topmostMove = recentMoves.isEmpty() ? olderMoves.peek() : recentMoves.getLast();
         assert topmostMove instanceof MoveResult.Valid.Alive;
 
         return topmostMove;
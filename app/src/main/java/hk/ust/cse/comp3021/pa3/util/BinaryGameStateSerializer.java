@@ -0,0 +1,436 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serializer for converting between a compact binary representation and the {@link GameState} instances of a game.
+ *
+ * <p>
+ * Unlike {@link GameStateSerializer}, which only stores the game board, this format also stores the statistics and the
+ * {@link MoveStack} of every player, so that a game can be restored exactly as it was saved. All integers are
+ * big-endian, and {@code varint} denotes an unsigned LEB128 integer.
+ * </p>
+ * <pre>
+ * int     MAGIC
+ * short   VERSION
+ * int     numRows
+ * int     numCols
+ * varint  numRuns                 // run-length encoded BoardLayers flags, in row-major order
+ * { byte flags; varint length }[numRuns]
+ * varint  numPlayers              // in the order of GameBoard#getPlayers()
+ * {
+ *     int    numLives             // GameState#UNLIMITED_LIVES if unlimited
+ *     varint numMoves, numDeaths, numGotGems, numUndoes
+ *     varint numCollectedGems, numCollectedExtraLives
+ *     varint numStackedMoves      // MoveResult.Valid.Alive, from the bottom of the stack
+ *     {
+ *         varint newPosition, origPosition     // row-major indices
+ *         varint numGems;  varint gemPositions[numGems]
+ *         varint numLives; varint extraLifePositions[numLives]
+ *     }[numStackedMoves]
+ * }[numPlayers]
+ * </pre>
+ * <p>
+ * Only the players present on the game board are saved, since a player which has been kicked out cannot be placed
+ * back onto a new game board. Saved player IDs are not preserved, as IDs are assigned when players are created.
+ * </p>
+ */
+public final class BinaryGameStateSerializer {
+
+    /**
+     * Magic number identifying the format, which is {@code "IGSB"} in ASCII.
+     */
+    static final int MAGIC = 0x49475342;
+
+    /**
+     * The version of the format written by this class.
+     */
+    static final short VERSION = 1;
+
+    private BinaryGameStateSerializer() {
+    }
+
+    /**
+     * Serializes the specified {@link GameState} instances of a game to the output file.
+     *
+     * @param gameStates The game states of all players present on the game board.
+     * @param outputFile The file to write to.
+     * @return {@code outputFile}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code outputFile}.
+     */
+    @NotNull
+    public static Path writeTo(@NotNull final GameState[] gameStates, @NotNull final Path outputFile)
+            throws FileAlreadyExistsException {
+        Objects.requireNonNull(gameStates);
+        Objects.requireNonNull(outputFile);
+
+        if (Files.exists(outputFile)) {
+            throw new FileAlreadyExistsException(outputFile.toString());
+        }
+
+        try {
+            Files.write(outputFile, toByteArray(gameStates), StandardOpenOption.CREATE_NEW);
+        } catch (final FileAlreadyExistsException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        return outputFile;
+    }
+
+    /**
+     * Loads an input file and deserializes it into an array of {@link GameState} instances, one for each player.
+     *
+     * @param inputFile The input file to read from.
+     * @return The {@link GameState} instances created from deserializing {@code inputFile}.
+     * @throws FileNotFoundException    if {@code inputFile} does not exist.
+     * @throws IllegalArgumentException if {@code inputFile} is not in a supported format.
+     */
+    @NotNull
+    public static GameState[] loadFrom(@NotNull final Path inputFile) throws FileNotFoundException {
+        Objects.requireNonNull(inputFile);
+
+        if (!Files.isRegularFile(inputFile)) {
+            throw new FileNotFoundException(inputFile.toString());
+        }
+
+        try {
+            return loadFrom(ByteBuffer.wrap(Files.readAllBytes(inputFile)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Serializes the specified {@link GameState} instances of a game.
+     *
+     * <p>
+     * The game board is locked while it is serialized, so that the snapshot is consistent even if other threads are
+     * making moves.
+     * </p>
+     *
+     * @param gameStates The game states of all players present on the game board.
+     * @return The serialized game.
+     * @throws IllegalArgumentException if {@code gameStates} is empty, the game states do not share the same game
+     *                                  board, or there is no game state for a player present on the game board.
+     */
+    @NotNull
+    public static byte[] toByteArray(@NotNull final GameState... gameStates) {
+        if (gameStates.length < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        final var gameBoard = gameStates[0].getGameBoard();
+        final var bytes = new ByteArrayOutputStream();
+        gameBoard.getLock().lock();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeLayers(gameBoard.getLayers(), out);
+
+            final var players = gameBoard.getPlayers();
+            writeVarInt(players.size(), out);
+            for (final var player : players) {
+                writePlayer(gameStateOf(player, gameStates), out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            gameBoard.getLock().unlock();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a game in a single pass over the remaining bytes of the buffer.
+     *
+     * @param buffer The buffer containing the serialized game. Its position is advanced past the game.
+     * @return The {@link GameState} instances of the game, one for each player in the order of
+     * {@link GameBoard#getPlayers()}.
+     * @throws IllegalArgumentException if the buffer does not contain a game in a supported format, or the game board
+     *                                  is invalid.
+     */
+    @NotNull
+    public static GameState[] loadFrom(@NotNull final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary game state");
+            }
+            final var version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version: " + version);
+            }
+
+            final var gameBoard = new GameBoard(readLayers(buffer));
+            final var players = gameBoard.getPlayers();
+            if (readVarInt(buffer) != players.size()) {
+                throw new IllegalArgumentException("Mismatched number of players");
+            }
+
+            final var gameStates = new GameState[players.size()];
+            for (int i = 0; i < gameStates.length; ++i) {
+                gameStates[i] = readPlayer(gameBoard, players.get(i), buffer);
+            }
+            return gameStates;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary game state", e);
+        }
+    }
+
+    /**
+     * @param player     A player on the game board.
+     * @param gameStates The game states to search from.
+     * @return The game state of {@code player}.
+     * @throws IllegalArgumentException if there is no game state for {@code player}.
+     */
+    @NotNull
+    private static GameState gameStateOf(@NotNull final Player player, @NotNull final GameState[] gameStates) {
+        for (final var gameState : gameStates) {
+            if (gameState.getPlayer() == player) {
+                return gameState;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Writes the flags of every cell, run-length encoded.
+     *
+     * @param layers The layers of the game board.
+     * @param out    The stream to write to.
+     * @throws IOException If an I/O error occurred while writing to {@code out}.
+     */
+    private static void writeLayers(@NotNull final BoardLayers layers, @NotNull final DataOutputStream out)
+            throws IOException {
+        out.writeInt(layers.getNumRows());
+        out.writeInt(layers.getNumCols());
+
+        final var runs = new ByteArrayOutputStream();
+        final var runsOut = new DataOutputStream(runs);
+        var numRuns = 0;
+        for (int i = 0; i < layers.size(); ) {
+            final var flags = layers.get(i);
+            var length = 1;
+            while (i + length < layers.size() && layers.get(i + length) == flags) {
+                ++length;
+            }
+
+            runsOut.writeByte(flags);
+            writeVarInt(length, runsOut);
+            ++numRuns;
+            i += length;
+        }
+
+        writeVarInt(numRuns, out);
+        runs.writeTo(out);
+    }
+
+    /**
+     * Reads the run-length encoded flags of every cell.
+     *
+     * @param buffer The buffer to read from.
+     * @return The layers of the game board.
+     * @throws IllegalArgumentException if the runs do not cover the game board exactly.
+     */
+    @NotNull
+    private static BoardLayers readLayers(@NotNull final ByteBuffer buffer) {
+        final var numRows = buffer.getInt();
+        final var numCols = buffer.getInt();
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid board size");
+        }
+
+        final var flags = new byte[numRows * numCols];
+        final var numRuns = readVarInt(buffer);
+        var i = 0;
+        for (int run = 0; run < numRuns; ++run) {
+            final var value = buffer.get();
+            final var length = readVarInt(buffer);
+            if (length > flags.length - i) {
+                throw new IllegalArgumentException("Run exceeds the board");
+            }
+            for (final var end = i + length; i < end; ++i) {
+                flags[i] = value;
+            }
+        }
+        if (i != flags.length) {
+            throw new IllegalArgumentException("Runs do not cover the board");
+        }
+
+        return new BoardLayers(numRows, numCols, flags);
+    }
+
+    /**
+     * Writes the statistics and moves of a player.
+     *
+     * @param gameState The game state of the player.
+     * @param out       The stream to write to.
+     * @throws IOException If an I/O error occurred while writing to {@code out}.
+     */
+    private static void writePlayer(@NotNull final GameState gameState, @NotNull final DataOutputStream out)
+            throws IOException {
+        final var gameBoard = gameState.getGameBoard();
+        final var playerId = gameState.getPlayer().getId();
+
+        out.writeInt(gameState.hasUnlimitedLives() ? GameState.UNLIMITED_LIVES : gameState.getNumLives());
+        writeVarInt(gameState.getNumMoves(), out);
+        writeVarInt(gameState.getNumDeaths(), out);
+        writeVarInt(gameState.getNumGotGems(), out);
+        writeVarInt(gameState.getMoveStack().getPopCount(), out);
+        writeVarInt(gameBoard.getNumCollectedGems(playerId), out);
+        writeVarInt(gameBoard.getNumCollectedExtraLives(playerId), out);
+
+        final var moves = gameState.getStackedMoves();
+        writeVarInt(moves.size(), out);
+        for (final var stackedMove : moves) {
+            final var move = (MoveResult.Valid.Alive) stackedMove;
+            writeVarInt(gameBoard.indexOf(move.newPosition), out);
+            writeVarInt(gameBoard.indexOf(move.origPosition), out);
+            writePositions(gameBoard, move.collectedGems, out);
+            writePositions(gameBoard, move.collectedExtraLives, out);
+        }
+    }
+
+    /**
+     * Reads the statistics and moves of a player.
+     *
+     * @param gameBoard The game board of the player.
+     * @param player    The player.
+     * @param buffer    The buffer to read from.
+     * @return The game state of the player.
+     */
+    @NotNull
+    private static GameState readPlayer(@NotNull final GameBoard gameBoard, @NotNull final Player player,
+                                        @NotNull final ByteBuffer buffer) {
+        final var gameState = new GameState(gameBoard, player, buffer.getInt());
+        final var numMoves = readVarInt(buffer);
+        final var numDeaths = readVarInt(buffer);
+        final var numGotGems = readVarInt(buffer);
+        final var popCount = readVarInt(buffer);
+        gameState.restoreStatistics(numMoves, numDeaths, numGotGems, popCount);
+        gameBoard.addCollected(player.getId(), readVarInt(buffer), readVarInt(buffer));
+
+        final var numStackedMoves = readVarInt(buffer);
+        for (int i = 0; i < numStackedMoves; ++i) {
+            final var newPosition = readPosition(gameBoard, buffer);
+            final var origPosition = readPosition(gameBoard, buffer);
+            final var collectedGems = readPositions(gameBoard, buffer);
+            final var collectedExtraLives = readPositions(gameBoard, buffer);
+            gameState.getMoveStack().push(
+                    new MoveResult.Valid.Alive(newPosition, origPosition, collectedGems, collectedExtraLives));
+        }
+        return gameState;
+    }
+
+    /**
+     * Writes a list of positions as row-major indices, prefixed by its size.
+     *
+     * @param gameBoard The game board of the positions.
+     * @param positions The positions to write.
+     * @param out       The stream to write to.
+     * @throws IOException If an I/O error occurred while writing to {@code out}.
+     */
+    private static void writePositions(@NotNull final GameBoard gameBoard, @NotNull final List<Position> positions,
+                                       @NotNull final DataOutputStream out) throws IOException {
+        writeVarInt(positions.size(), out);
+        for (final var position : positions) {
+            writeVarInt(gameBoard.indexOf(position), out);
+        }
+    }
+
+    /**
+     * Reads a list of positions written by {@link BinaryGameStateSerializer#writePositions}.
+     *
+     * @param gameBoard The game board of the positions.
+     * @param buffer    The buffer to read from.
+     * @return The positions.
+     */
+    @NotNull
+    private static List<Position> readPositions(@NotNull final GameBoard gameBoard, @NotNull final ByteBuffer buffer) {
+        final var size = readVarInt(buffer);
+        if (size > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid number of positions");
+        }
+
+        final var positions = new ArrayList<Position>(size);
+        for (int i = 0; i < size; ++i) {
+            positions.add(readPosition(gameBoard, buffer));
+        }
+        return positions;
+    }
+
+    /**
+     * @param gameBoard The game board of the position.
+     * @param buffer    The buffer to read from.
+     * @return The position whose row-major index is read from {@code buffer}.
+     * @throws IllegalArgumentException if the index is outside of the game board.
+     */
+    @NotNull
+    private static Position readPosition(@NotNull final GameBoard gameBoard, @NotNull final ByteBuffer buffer) {
+        final var index = readVarInt(buffer);
+        if (index >= gameBoard.getNumRows() * gameBoard.getNumCols()) {
+            throw new IllegalArgumentException("Position outside of the board");
+        }
+        return gameBoard.getPosition(index);
+    }
+
+    /**
+     * Writes a non-negative integer as an unsigned LEB128 varint.
+     *
+     * @param value The value to write.
+     * @param out   The stream to write to.
+     * @throws IOException If an I/O error occurred while writing to {@code out}.
+     */
+    static void writeVarInt(final int value, @NotNull final DataOutputStream out) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        var v = value;
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    /**
+     * Reads a non-negative integer written by {@link BinaryGameStateSerializer#writeVarInt}.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value read.
+     * @throws IllegalArgumentException if the varint does not fit into a non-negative {@code int}.
+     */
+    static int readVarInt(@NotNull final ByteBuffer buffer) {
+        var value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final var b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Varint out of range");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint out of range");
+    }
+}
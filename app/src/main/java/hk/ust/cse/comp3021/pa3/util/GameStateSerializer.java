@@ -7,9 +7,12 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 
 /**
@@ -87,6 +90,11 @@ public final class GameStateSerializer {
      * each {@link Player} instance is associated with a {@link GameState} instance,
      * so we return an array of {@link GameState} instances, whose length is equal to the total number of players.
      *
+     * <p>
+     * The file is memory-mapped and parsed by {@link GameStateSerializer#loadFrom(ByteBuffer)}, so that large game
+     * boards are loaded without allocating a {@link String} for each line.
+     * </p>
+     *
      * @param inputFile The input file to read from.
      * @return An instance of {@link GameState} created from deserializing {@code inputFile}.
      * @throws FileNotFoundException if {@code inputFile} does not exist.
@@ -100,8 +108,14 @@ public final class GameStateSerializer {
             throw new FileNotFoundException(inputFile.toString());
         }
 
-        try (var reader = Files.newBufferedReader(inputFile)) {
-            return loadFrom(reader);
+        try (var channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                // Too large to be mapped as a single buffer
+                try (var reader = Files.newBufferedReader(inputFile)) {
+                    return loadFrom(reader);
+                }
+            }
+            return loadFrom(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -134,15 +148,136 @@ public final class GameStateSerializer {
             }
         }
 
-        final var board = new Cell[numRows][numCols];
+        final var layers = new byte[numRows * numCols];
         for (int r = 0; r < numRows; r++) {
             final var line = reader.readLine();
             for (int c = 0; c < numCols; ++c) {
-                board[r][c] = fromCellChar(line.charAt(c), new Position(r, c));
+                layers[r * numCols + c] = fromCellChar(line.charAt(c));
+            }
+        }
+
+        return createGameStates(new BoardLayers(numRows, numCols, layers), numLives);
+    }
+
+    /**
+     * Creates an array of {@link GameState} instance by parsing the serialized game state in a {@link ByteBuffer}, such
+     * as a memory-mapped file.
+     *
+     * <p>
+     * Cells are parsed straight from the buffer into {@link BoardLayers}, without allocating a {@link String} for each
+     * line. Characters are read as single bytes, which is sufficient since all cell representations are ASCII.
+     * </p>
+     *
+     * @param buffer The buffer containing the serialized game state, from its position to its limit.
+     * @return An array of instances of {@link GameState} created from deserializing {@code buffer}.
+     * @throws IllegalArgumentException if the buffer does not contain a valid serialized game state.
+     */
+    @NotNull
+    static GameState[] loadFrom(@NotNull final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+
+        final var numRows = parseIntLine(buffer, 0);
+        final var numCols = parseIntLine(buffer, 0);
+        final var numLives = parseIntLine(buffer, -1);
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid board size");
+        }
+
+        final var layers = new byte[numRows * numCols];
+        for (int r = 0; r < numRows; r++) {
+            final var offset = r * numCols;
+            for (int c = 0; c < numCols; ++c) {
+                if (!buffer.hasRemaining()) {
+                    throw new IllegalArgumentException("Unexpected end of input");
+                }
+                layers[offset + c] = fromCellChar((char) (buffer.get() & 0xFF));
             }
+            skipLine(buffer);
         }
 
-        final var gameBoard = new GameBoard(numRows, numCols, board);
+        return createGameStates(new BoardLayers(numRows, numCols, layers), numLives);
+    }
+
+    /**
+     * Parses a line containing a single integer, and advances the buffer to the start of the next line.
+     *
+     * <p>
+     * Whitespace (including {@code '\r'}) is only allowed before and after the integer, so that e.g. {@code "1 2"} or
+     * {@code "- 5"} are rejected like {@link Integer#parseInt(String)} does, instead of being read as another integer.
+     * </p>
+     *
+     * @param buffer       The buffer to read from.
+     * @param defaultValue The value to return if the line is blank.
+     * @return The parsed integer.
+     * @throws IllegalArgumentException if the line is not an integer, or there is no line.
+     */
+    private static int parseIntLine(@NotNull final ByteBuffer buffer, final int defaultValue) {
+        if (!buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected end of input");
+        }
+
+        var value = 0L;
+        var negative = false;
+        var numDigits = 0;
+        // Whether the integer has ended, i.e. whitespace has been read after the sign or the digits
+        var ended = false;
+        while (buffer.hasRemaining()) {
+            final var b = buffer.get();
+            if (b == '\n') {
+                break;
+            } else if (Character.isWhitespace(b)) {
+                ended = negative || numDigits > 0;
+            } else if (ended) {
+                throw new IllegalArgumentException("Invalid integer line");
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw new IllegalArgumentException("Integer out of range");
+                }
+                ++numDigits;
+            } else if (b == '-' && numDigits == 0 && !negative) {
+                negative = true;
+            } else {
+                throw new IllegalArgumentException("Invalid integer line");
+            }
+        }
+
+        if (numDigits == 0) {
+            if (negative) {
+                throw new IllegalArgumentException("Invalid integer line");
+            }
+            return defaultValue;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Integer out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Advances the buffer to the start of the next line, or to its limit if this is the last line.
+     *
+     * @param buffer The buffer to advance.
+     */
+    private static void skipLine(@NotNull final ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            if (buffer.get() == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the game board and a {@link GameState} instance for each {@link Player} on it.
+     *
+     * @param layers   The layers of the game board.
+     * @param numLives The number of lives of each player, or a negative value for unlimited lives.
+     * @return An array of instances of {@link GameState}, one for each player.
+     */
+    @NotNull
+    private static GameState[] createGameStates(@NotNull final BoardLayers layers, final int numLives) {
+        final var gameBoard = new GameBoard(layers);
 
         // Construct a GameState instance for each Player
         return gameBoard.getPlayers().stream()
@@ -188,25 +323,21 @@ public final class GameStateSerializer {
     }
 
     /**
-     * Converts the serialized character representation of a {@link Cell} to an instance.
+     * Converts the serialized character representation of a {@link Cell} to its {@link BoardLayers} flags.
      *
-     * @param c        The character representing a cell.
-     * @param position The position of the cell on the game board.
-     * @return An instance of {@link Cell} which is represented by {@code c}.
+     * @param c The character representing a cell.
+     * @return The layer flags of the cell which is represented by {@code c}.
      * @throws IllegalArgumentException if {@code c} is not a known representation of a cell.
      */
-    @NotNull
-    private static Cell fromCellChar(final char c, @NotNull final Position position) {
-        Objects.requireNonNull(position);
-
+    static byte fromCellChar(final char c) {
         return switch (c) {
-            case 'W' -> new Wall(position);
-            case 'L' -> new EntityCell(position, new ExtraLife());
-            case 'G' -> new EntityCell(position, new Gem());
-            case 'M' -> new EntityCell(position, new Mine());
-            case 'P' -> new StopCell(position, new Player());
-            case 'S' -> new StopCell(position);
-            case '.' -> new EntityCell(position);
+            case 'W' -> BoardLayers.WALL;
+            case 'L' -> BoardLayers.EXTRA_LIFE;
+            case 'G' -> BoardLayers.GEM;
+            case 'M' -> BoardLayers.MINE;
+            case 'P' -> BoardLayers.STOP | BoardLayers.PLAYER;
+            case 'S' -> BoardLayers.STOP;
+            case '.' -> 0;
             default -> throw new IllegalArgumentException("Unknown cell representation: " + c);
         };
     }
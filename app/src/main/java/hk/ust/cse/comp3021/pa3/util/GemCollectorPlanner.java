@@ -0,0 +1,159 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.BoardSnapshot;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plans a sequence of moves for a player to collect the gems remaining on a {@link GameBoard}.
+ *
+ * <p>
+ * The planner runs a breadth-first search over the slide graph of the game board, where each state is a pair of the
+ * position of the player and the set of gems collected so far, and each edge is a single move. Moves which hit a mine
+ * are pruned, and other players are treated as walls at their current positions. The search is the one of
+ * {@link PuzzleSolver}, provided by {@link GemSearch}.
+ * </p>
+ * <p>
+ * If there are too many gems (or the search space grows too large) for an exact plan, the planner falls back to a plan
+ * which reaches the nearest move collecting at least one gem, and continues from there after that move is made.
+ * </p>
+ * <p>
+ * The plan is cached across calls to {@link GemCollectorPlanner#nextDirection()}, and is only recomputed when the game
+ * board no longer matches what the plan expects, e.g. if the player is not where the plan left it, or if some gems have
+ * been collected by other players.
+ * </p>
+ */
+public final class GemCollectorPlanner {
+
+    /**
+     * The maximum number of gems for which an exact plan collecting all gems is attempted.
+     */
+    static final int MAX_EXACT_GEMS = 20;
+
+    /**
+     * The maximum number of states visited when searching for an exact plan.
+     */
+    static final int MAX_EXACT_STATES = 200_000;
+
+    /**
+     * A single planned move.
+     *
+     * @param direction The direction to move in.
+     * @param end       Row-major index of the cell where the player ends up after the move.
+     * @param numGems   The number of gems collected by the move.
+     */
+    private record Step(@NotNull Direction direction, int end, int numGems) {
+    }
+
+    @NotNull
+    private final GameState gameState;
+
+    @NotNull
+    private final GameBoard gameBoard;
+
+    /**
+     * The remaining moves of the current plan.
+     */
+    @NotNull
+    private final Deque<Step> plan = new ArrayDeque<>();
+
+    /**
+     * Row-major index of the cell where the player is expected to be, if the last planned move has been made.
+     */
+    private int expectedIndex = BoardLayers.NONE;
+
+    /**
+     * The number of gems expected on the game board, if the last planned move has been made.
+     */
+    private int expectedNumGems = -1;
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameState The game state of the player to plan for.
+     */
+    public GemCollectorPlanner(@NotNull final GameState gameState) {
+        this.gameState = Objects.requireNonNull(gameState);
+        this.gameBoard = gameState.getGameBoard();
+    }
+
+    /**
+     * Gets the next move of the plan, replanning if the game board has changed under the current plan.
+     *
+     * <p>
+     * The returned move is considered as made once this method returns; If the move is not actually made, the next call
+     * to this method will replan. Plans are computed on a {@link BoardSnapshot}, so the lock of the game board is only
+     * held while the snapshot is taken, and other players can keep moving while this player is planning.
+     * </p>
+     *
+     * @return The direction to move the player in next, or {@code null} if no remaining gem can be safely reached.
+     */
+    @Nullable
+    public Direction nextDirection() {
+        final var playerSlot = gameBoard.slotOf(gameState.getPlayer());
+        if (playerSlot < 0) {
+            return null;
+        }
+        final var snapshot = gameBoard.snapshot();
+        final var current = snapshot.getPlayerIndex(playerSlot);
+        if (current == BoardLayers.NONE) {
+            return null;
+        }
+
+        if (plan.isEmpty() || current != expectedIndex || snapshot.getNumGems() != expectedNumGems) {
+            replan(snapshot, playerSlot);
+        }
+
+        final var step = plan.poll();
+        if (step == null) {
+            expectedIndex = BoardLayers.NONE;
+            return null;
+        }
+
+        expectedIndex = step.end();
+        expectedNumGems = snapshot.getNumGems() - step.numGems();
+        return step.direction();
+    }
+
+    /**
+     * Recomputes the plan on a snapshot.
+     *
+     * @param snapshot   The snapshot of the game board.
+     * @param playerSlot The slot of the player.
+     */
+    private void replan(@NotNull final BoardSnapshot snapshot, final int playerSlot) {
+        plan.clear();
+
+        final var numGems = snapshot.getNumGems();
+        if (numGems == 0) {
+            return;
+        }
+
+        final var pool = ForkJoinPool.commonPool();
+        final var allGems = numGems <= MAX_EXACT_GEMS
+                ? GemSearch.allGems(snapshot, playerSlot, Integer.MAX_VALUE, MAX_EXACT_STATES, pool)
+                : null;
+        final var directions = allGems != null && allGems.isPresent()
+                ? allGems.get()
+                : GemSearch.nearestGems(snapshot, playerSlot, Integer.MAX_VALUE);
+        if (directions == null) {
+            return;
+        }
+
+        var before = snapshot;
+        for (final var direction : directions) {
+            final var after = Objects.requireNonNull(before.move(playerSlot, direction));
+            plan.add(new Step(direction, after.getPlayerIndex(playerSlot), before.getNumGems() - after.getNumGems()));
+            before = after;
+        }
+    }
+}
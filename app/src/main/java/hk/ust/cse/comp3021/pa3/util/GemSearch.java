@@ -0,0 +1,475 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.BoardSnapshot;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Breadth-first searches for a single player collecting gems on a {@link BoardSnapshot}, shared by
+ * {@link GemCollectorPlanner} and {@link PuzzleSolver}.
+ *
+ * <p>
+ * Both searches follow the slide graph given by {@link BoardSnapshot#slideEnd(int, int, Direction)}, i.e. moves which
+ * hit a mine are pruned, and other players are treated as walls at their positions in the snapshot. Lives are not part
+ * of the search: Hitting a mine never changes the position of the player or the gems, and gems and extra lives never
+ * block a move, so a shortest sequence of moves never hits a mine and never depends on the number of lives.
+ * </p>
+ */
+final class GemSearch {
+
+    /**
+     * The maximum number of states in a depth of {@link GemSearch#allGems} expanded sequentially by a single task.
+     */
+    static final int SPLIT_THRESHOLD = 512;
+
+    /**
+     * The number of successors of each state, one per direction.
+     */
+    private static final int NUM_DIRECTIONS = Direction.values().length;
+
+    private GemSearch() {
+    }
+
+    /**
+     * Searches for the shortest sequence of moves collecting all gems.
+     *
+     * <p>
+     * The search runs over the states (position of the player, set of remaining gems). Each depth is expanded in
+     * parallel by splitting it into work-stealing {@link RecursiveAction}s, which compute the successors of the states
+     * and the Zobrist hash of each successor incrementally, using the keys of {@link GameBoard#zobristKey}. The
+     * successors are then added to the transposition table in the order of the states they are reached from, so the
+     * result does not depend on the scheduling of the tasks.
+     * </p>
+     *
+     * @param snapshot   The snapshot of the game board, which has at most {@link Long#SIZE} gems.
+     * @param playerSlot The slot of the player, which must be on the game board.
+     * @param maxMoves   The maximum number of moves.
+     * @param maxStates  The maximum number of states visited.
+     * @param pool       The pool to expand large depths on.
+     * @return The sequence of moves, or an empty {@link Optional} if there is no such sequence within {@code maxMoves}
+     * moves, or {@code null} if the search has visited more than {@code maxStates} states.
+     * @throws IllegalArgumentException if the snapshot has more than {@link Long#SIZE} gems.
+     */
+    @Nullable
+    static Optional<List<Direction>> allGems(
+            @NotNull final BoardSnapshot snapshot,
+            final int playerSlot,
+            final int maxMoves,
+            final int maxStates,
+            @NotNull final ForkJoinPool pool
+    ) {
+        final var numCells = snapshot.getNumRows() * snapshot.getNumCols();
+        final var gemIds = new int[numCells];
+        var numGems = 0;
+        for (int i = 0; i < numCells; ++i) {
+            gemIds[i] = (snapshot.get(i) & BoardLayers.GEM) != 0 ? numGems++ : -1;
+        }
+        if (numGems > Long.SIZE) {
+            throw new IllegalArgumentException();
+        }
+        if (numGems == 0) {
+            return Optional.of(List.of());
+        }
+
+        final var allGems = numGems == Long.SIZE ? -1L : (1L << numGems) - 1;
+        final var table = new StateTable();
+        table.add(snapshot.getPlayerIndex(playerSlot), allGems, snapshot.getZobristHash(), -1, (byte) -1);
+
+        // The states of each depth are the entries [first, last) of the table
+        var first = 0;
+        var last = 1;
+        for (int depth = 1; depth <= maxMoves && first < last; ++depth) {
+            final var successors = new Successors(last - first);
+            final var expand = new Expand(snapshot, playerSlot, gemIds, table, successors, first, last);
+            if (last - first > SPLIT_THRESHOLD) {
+                pool.invoke(expand);
+            } else {
+                expand.invoke();
+            }
+
+            for (int i = 0; i < successors.ends.length; ++i) {
+                final var end = successors.ends[i];
+                final var remaining = successors.remaining[i];
+                final var parent = first + i / NUM_DIRECTIONS;
+                if (end == BoardLayers.NONE
+                        || !table.add(end, remaining, successors.hashes[i], parent, (byte) (i % NUM_DIRECTIONS))) {
+                    continue;
+                }
+
+                if (remaining == 0) {
+                    return Optional.of(table.pathTo(table.size() - 1));
+                }
+                if (table.size() > maxStates) {
+                    return null;
+                }
+            }
+
+            first = last;
+            last = table.size();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Searches breadth-first over the positions of the player for the shortest sequence of moves collecting at least
+     * one gem.
+     *
+     * @param snapshot   The snapshot of the game board.
+     * @param playerSlot The slot of the player, which must be on the game board.
+     * @param maxMoves   The maximum number of moves.
+     * @return The sequence of moves, or {@code null} if there is no such sequence within {@code maxMoves} moves.
+     */
+    @Nullable
+    static List<Direction> nearestGems(
+            @NotNull final BoardSnapshot snapshot,
+            final int playerSlot,
+            final int maxMoves
+    ) {
+        final var numCells = snapshot.getNumRows() * snapshot.getNumCols();
+        final var from = snapshot.getPlayerIndex(playerSlot);
+        final var parents = new int[numCells];
+        final var moves = new byte[numCells];
+        final var depths = new int[numCells];
+        Arrays.fill(parents, BoardLayers.NONE);
+        parents[from] = from;
+
+        final var queue = new int[numCells];
+        var size = 0;
+        queue[size++] = from;
+        for (int head = 0; head < size; ++head) {
+            final var index = queue[head];
+            if (depths[index] >= maxMoves) {
+                break;
+            }
+
+            for (final var direction : Direction.values()) {
+                final var end = snapshot.slideEnd(playerSlot, index, direction);
+                if (end == BoardLayers.NONE) {
+                    continue;
+                }
+
+                final var delta = offsetOf(snapshot, direction);
+                var hasGem = false;
+                for (var k = index; k != end && !hasGem; ) {
+                    k += delta;
+                    hasGem = (snapshot.get(k) & BoardLayers.GEM) != 0;
+                }
+                if (hasGem) {
+                    final var path = new ArrayDeque<Direction>();
+                    path.push(direction);
+                    for (var k = index; k != from; k = parents[k]) {
+                        path.push(Direction.values()[moves[k]]);
+                    }
+                    return new ArrayList<>(path);
+                }
+                if (parents[end] == BoardLayers.NONE) {
+                    parents[end] = index;
+                    moves[end] = (byte) direction.ordinal();
+                    depths[end] = depths[index] + 1;
+                    queue[size++] = end;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param snapshot  The snapshot of the game board.
+     * @param direction A direction.
+     * @return The difference between the row-major indices of adjacent cells in {@code direction}.
+     */
+    private static int offsetOf(@NotNull final BoardSnapshot snapshot, @NotNull final Direction direction) {
+        return direction.getRowOffset() * snapshot.getNumCols() + direction.getColOffset();
+    }
+
+    /**
+     * The successors of the states of a depth of {@link GemSearch#allGems}. The successor after moving in
+     * {@code direction} from the {@code i}-th state of the depth is at
+     * {@code i * NUM_DIRECTIONS + direction.ordinal()}.
+     */
+    private static final class Successors {
+
+        /**
+         * Row-major index of the cell of the player, or {@link BoardLayers#NONE} if there is no successor.
+         */
+        @NotNull
+        final int[] ends;
+
+        /**
+         * Set of remaining gems, one bit per gem.
+         */
+        @NotNull
+        final long[] remaining;
+
+        /**
+         * Zobrist hash of the state.
+         */
+        @NotNull
+        final long[] hashes;
+
+        /**
+         * @param numStates The number of states of the depth.
+         */
+        Successors(final int numStates) {
+            final var size = numStates * NUM_DIRECTIONS;
+            this.ends = new int[size];
+            this.remaining = new long[size];
+            this.hashes = new long[size];
+        }
+    }
+
+    /**
+     * Task computing the successors of a range of the states of a depth.
+     *
+     * <p>
+     * The transposition table is not modified while the tasks are running, so successors which have already been
+     * visited are dropped here without any synchronization.
+     * </p>
+     */
+    private static final class Expand extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final BoardSnapshot snapshot;
+
+        private final int playerSlot;
+
+        /**
+         * The number of the gem in each cell, or {@code -1} if the cell does not contain a gem.
+         */
+        @NotNull
+        private final int[] gemIds;
+
+        @NotNull
+        private final StateTable table;
+
+        @NotNull
+        private final Successors successors;
+
+        /**
+         * The entry of the table of the first state of the depth.
+         */
+        private final int first;
+
+        private final int from;
+
+        private final int to;
+
+        Expand(
+                @NotNull final BoardSnapshot snapshot,
+                final int playerSlot,
+                @NotNull final int[] gemIds,
+                @NotNull final StateTable table,
+                @NotNull final Successors successors,
+                final int from,
+                final int to
+        ) {
+            this(snapshot, playerSlot, gemIds, table, successors, from, from, to);
+        }
+
+        private Expand(
+                @NotNull final BoardSnapshot snapshot,
+                final int playerSlot,
+                @NotNull final int[] gemIds,
+                @NotNull final StateTable table,
+                @NotNull final Successors successors,
+                final int first,
+                final int from,
+                final int to
+        ) {
+            this.snapshot = snapshot;
+            this.playerSlot = playerSlot;
+            this.gemIds = gemIds;
+            this.table = table;
+            this.successors = successors;
+            this.first = first;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                final var mid = (from + to) >>> 1;
+                invokeAll(
+                        new Expand(snapshot, playerSlot, gemIds, table, successors, first, from, mid),
+                        new Expand(snapshot, playerSlot, gemIds, table, successors, first, mid, to)
+                );
+                return;
+            }
+
+            for (int entry = from; entry < to; ++entry) {
+                final var index = table.indexOf(entry);
+                for (final var direction : Direction.values()) {
+                    final var i = (entry - first) * NUM_DIRECTIONS + direction.ordinal();
+                    successors.ends[i] = BoardLayers.NONE;
+
+                    final var end = snapshot.slideEnd(playerSlot, index, direction);
+                    if (end == BoardLayers.NONE) {
+                        continue;
+                    }
+
+                    var remaining = table.remainingOf(entry);
+                    var hash = table.hashOf(entry)
+                            ^ GameBoard.zobristKey(index, BoardLayers.PLAYER, playerSlot)
+                            ^ GameBoard.zobristKey(end, BoardLayers.PLAYER, playerSlot);
+                    final var delta = offsetOf(snapshot, direction);
+                    for (var k = index; k != end; ) {
+                        k += delta;
+                        final var gemId = gemIds[k];
+                        if (gemId >= 0 && (remaining & (1L << gemId)) != 0) {
+                            remaining &= ~(1L << gemId);
+                            hash ^= GameBoard.zobristKey(k, BoardLayers.GEM, -1);
+                        }
+                    }
+
+                    if (!table.contains(end, remaining, hash)) {
+                        successors.ends[i] = end;
+                        successors.remaining[i] = remaining;
+                        successors.hashes[i] = hash;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Transposition table of the states visited by {@link GemSearch#allGems}, keyed by the Zobrist hash of the state.
+     *
+     * <p>
+     * States are stored as entries of parallel primitive arrays in the order they are added, which is also the order
+     * they are visited, together with the entry of their parent and the move from it. The entries are indexed by an
+     * open-addressing hash table with linear probing, so that no state is boxed.
+     * </p>
+     */
+    private static final class StateTable {
+
+        @NotNull
+        private int[] indices = new int[1024];
+
+        @NotNull
+        private long[] remaining = new long[1024];
+
+        @NotNull
+        private long[] hashes = new long[1024];
+
+        @NotNull
+        private int[] parents = new int[1024];
+
+        @NotNull
+        private byte[] moves = new byte[1024];
+
+        /**
+         * The hash table, where each slot is one plus the number of an entry, or {@code 0} if the slot is empty.
+         */
+        @NotNull
+        private int[] slots = new int[2048];
+
+        private int size = 0;
+
+        /**
+         * @return The number of states in this table.
+         */
+        int size() {
+            return size;
+        }
+
+        int indexOf(final int entry) {
+            return indices[entry];
+        }
+
+        long remainingOf(final int entry) {
+            return remaining[entry];
+        }
+
+        long hashOf(final int entry) {
+            return hashes[entry];
+        }
+
+        /**
+         * @return Whether the state is in this table.
+         */
+        boolean contains(final int index, final long remaining, final long hash) {
+            return slots[find(index, remaining, hash)] != 0;
+        }
+
+        /**
+         * Adds a state, if it is not already in this table.
+         *
+         * @param index     Row-major index of the cell of the player.
+         * @param remaining Set of remaining gems.
+         * @param hash      Zobrist hash of the state.
+         * @param parent    The entry of the state from which the state is reached, or {@code -1} for the initial state.
+         * @param move      The ordinal of the direction moved from {@code parent}.
+         * @return Whether the state has been added.
+         */
+        boolean add(final int index, final long remaining, final long hash, final int parent, final byte move) {
+            // Keep the load factor at most 1/2
+            if (2 * (size + 1) > slots.length) {
+                slots = new int[slots.length * 2];
+                for (int entry = 0; entry < size; ++entry) {
+                    slots[find(indices[entry], this.remaining[entry], hashes[entry])] = entry + 1;
+                }
+            }
+
+            final var slot = find(index, remaining, hash);
+            if (slots[slot] != 0) {
+                return false;
+            }
+
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+                this.remaining = Arrays.copyOf(this.remaining, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+                parents = Arrays.copyOf(parents, size * 2);
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            indices[size] = index;
+            this.remaining[size] = remaining;
+            hashes[size] = hash;
+            parents[size] = parent;
+            moves[size] = move;
+            slots[slot] = ++size;
+            return true;
+        }
+
+        /**
+         * @param entry The entry of a state.
+         * @return The directions leading from the initial state to the state.
+         */
+        @NotNull
+        List<Direction> pathTo(int entry) {
+            final var directions = new ArrayDeque<Direction>();
+            for (; parents[entry] != -1; entry = parents[entry]) {
+                directions.push(Direction.values()[moves[entry]]);
+            }
+            return new ArrayList<>(directions);
+        }
+
+        /**
+         * @return The slot of the state, or the empty slot where the state would be added if it is not in this table.
+         */
+        private int find(final int index, final long remaining, final long hash) {
+            final var mask = slots.length - 1;
+            for (int slot = (int) (hash >>> 32) & mask; ; slot = (slot + 1) & mask) {
+                final var entry = slots[slot] - 1;
+                if (entry < 0
+                        || (hashes[entry] == hash && indices[entry] == index && this.remaining[entry] == remaining)) {
+                    return slot;
+                }
+            }
+        }
+    }
+}
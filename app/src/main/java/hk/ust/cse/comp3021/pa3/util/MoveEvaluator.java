@@ -0,0 +1,259 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.BoardSnapshot;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Chooses the best direction for a player by looking a fixed number of moves ahead.
+ *
+ * <p>
+ * Every sequence of up to {@link MoveEvaluator#getPlies()} safe moves of the player is simulated on immutable
+ * {@link BoardSnapshot}s, so the live game board is only locked while the snapshot is taken. A sequence scores
+ * {@link MoveEvaluator#GEM_SCORE} for each gem collected, weighted so that gems collected earlier score higher, and the
+ * number of safe moves at the end of the sequence breaks ties, which steers the player away from dead ends. Other
+ * players are assumed to stay where they are.
+ * </p>
+ * <p>
+ * The moves of the first {@link MoveEvaluator#getPlies()} {@code - SEQUENTIAL_PLIES} plies are evaluated as
+ * {@link RecursiveTask}s on a work-stealing {@link ForkJoinPool}, and the remaining plies are evaluated sequentially
+ * within each task.
+ * </p>
+ */
+public final class MoveEvaluator {
+
+    /**
+     * The default number of moves to look ahead.
+     */
+    public static final int DEFAULT_PLIES = 4;
+
+    /**
+     * The score of collecting a gem in the last ply.
+     */
+    static final int GEM_SCORE = 100;
+
+    /**
+     * The number of plies at the bottom of the search which are evaluated sequentially instead of being forked.
+     */
+    static final int SEQUENTIAL_PLIES = 2;
+
+    private final int plies;
+
+    @NotNull
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an instance looking {@link MoveEvaluator#DEFAULT_PLIES} moves ahead on the common {@link ForkJoinPool}.
+     */
+    public MoveEvaluator() {
+        this(DEFAULT_PLIES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param plies The number of moves to look ahead.
+     * @param pool  The pool to evaluate the moves on.
+     * @throws IllegalArgumentException if {@code plies} is not positive.
+     */
+    public MoveEvaluator(final int plies, @NotNull final ForkJoinPool pool) {
+        if (plies <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.plies = plies;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * @return The number of moves to look ahead.
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Chooses the best direction for the player of a game state on the current state of its game board.
+     *
+     * @param gameState The game state of the player.
+     * @return The best direction, or {@code null} if the player is no longer on the game board or has no safe move.
+     */
+    @Nullable
+    public Direction bestDirection(@NotNull final GameState gameState) {
+        final var gameBoard = gameState.getGameBoard();
+        final BoardSnapshot snapshot;
+        final int slot;
+
+        gameBoard.getLock().lock();
+        try {
+            if (gameState.getPlayer().getOwner() == null) {
+                return null;
+            }
+            snapshot = gameBoard.snapshot();
+            slot = gameBoard.slotOf(gameState.getPlayer());
+        } finally {
+            gameBoard.getLock().unlock();
+        }
+
+        return slot >= 0 ? bestDirection(snapshot, slot) : null;
+    }
+
+    /**
+     * Chooses the best direction for a player on a snapshot.
+     *
+     * @param snapshot   The snapshot of the game board.
+     * @param playerSlot The slot of the player to move.
+     * @return The best direction, or {@code null} if the player is no longer on the game board or has no safe move.
+     */
+    @Nullable
+    public Direction bestDirection(@NotNull final BoardSnapshot snapshot, final int playerSlot) {
+        Objects.requireNonNull(snapshot);
+        if (snapshot.getPlayerIndex(playerSlot) == BoardLayers.NONE) {
+            return null;
+        }
+
+        final var tasks = new ArrayList<Evaluation>();
+        final var directions = new ArrayList<Direction>();
+        for (final var direction : Direction.values()) {
+            final var next = snapshot.move(playerSlot, direction);
+            if (next != null) {
+                tasks.add(new Evaluation(snapshot, next, playerSlot, plies));
+                directions.add(direction);
+            }
+        }
+        if (tasks.isEmpty()) {
+            return null;
+        }
+
+        final var scores = pool.invoke(new RecursiveTask<long[]>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected long[] compute() {
+                invokeAll(tasks);
+                return tasks.stream().mapToLong(Evaluation::join).toArray();
+            }
+        });
+
+        var best = 0;
+        for (int i = 1; i < scores.length; ++i) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return directions.get(best);
+    }
+
+    /**
+     * Task evaluating the best score reachable after a move.
+     */
+    private static final class Evaluation extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final BoardSnapshot before;
+
+        @NotNull
+        private final BoardSnapshot after;
+
+        private final int playerSlot;
+
+        /**
+         * The number of plies remaining, including the move from {@link Evaluation#before} to {@link Evaluation#after}.
+         */
+        private final int remainingPlies;
+
+        Evaluation(
+                @NotNull final BoardSnapshot before,
+                @NotNull final BoardSnapshot after,
+                final int playerSlot,
+                final int remainingPlies
+        ) {
+            this.before = before;
+            this.after = after;
+            this.playerSlot = playerSlot;
+            this.remainingPlies = remainingPlies;
+        }
+
+        @Override
+        protected Long compute() {
+            final var gain = (long) (before.getNumGems() - after.getNumGems()) * GEM_SCORE * remainingPlies;
+            if (after.getNumGems() == 0 || remainingPlies == 1) {
+                return gain + countSafeMoves(after, playerSlot);
+            }
+            if (remainingPlies <= SEQUENTIAL_PLIES) {
+                return gain + evaluateSequentially(after, playerSlot, remainingPlies - 1);
+            }
+
+            final var children = new ArrayList<Evaluation>();
+            for (final var direction : Direction.values()) {
+                final var next = after.move(playerSlot, direction);
+                if (next != null) {
+                    children.add(new Evaluation(after, next, playerSlot, remainingPlies - 1));
+                }
+            }
+            invokeAll(children);
+
+            var best = 0L;
+            for (final var child : children) {
+                best = Math.max(best, child.join());
+            }
+            return gain + best;
+        }
+    }
+
+    /**
+     * Evaluates the best score reachable from a snapshot on the current thread.
+     *
+     * @param snapshot   The snapshot to move from.
+     * @param playerSlot The slot of the player to move.
+     * @param plies      The number of plies remaining.
+     * @return The best score of all sequences of moves from {@code snapshot}.
+     */
+    private static long evaluateSequentially(
+            @NotNull final BoardSnapshot snapshot,
+            final int playerSlot,
+            final int plies
+    ) {
+        var best = 0L;
+        for (final var direction : Direction.values()) {
+            final var next = snapshot.move(playerSlot, direction);
+            if (next == null) {
+                continue;
+            }
+
+            var score = (long) (snapshot.getNumGems() - next.getNumGems()) * GEM_SCORE * plies;
+            if (next.getNumGems() == 0 || plies == 1) {
+                score += countSafeMoves(next, playerSlot);
+            } else {
+                score += evaluateSequentially(next, playerSlot, plies - 1);
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    /**
+     * @param snapshot   A snapshot.
+     * @param playerSlot The slot of a player.
+     * @return The number of directions the player can move in without hitting a mine.
+     */
+    private static int countSafeMoves(@NotNull final BoardSnapshot snapshot, final int playerSlot) {
+        var count = 0;
+        for (final var direction : Direction.values()) {
+            if (snapshot.canMove(playerSlot, direction)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
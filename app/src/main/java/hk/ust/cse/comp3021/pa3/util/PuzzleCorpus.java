@@ -0,0 +1,332 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loader for corpora of puzzle files, such as the {@code puzzles} directory.
+ *
+ * <p>
+ * A corpus is either a directory, which is searched recursively, a ZIP archive, or a single puzzle file. Every file
+ * with the {@link PuzzleCorpus#EXTENSION} extension is parsed by {@link GameStateSerializer} on an {@link Executor}
+ * (the work-stealing {@link ForkJoinPool#commonPool()} by default), which also validates the game board with the
+ * reachability rules of {@link hk.ust.cse.comp3021.pa3.model.GameBoard}. Results are streamed in the order the files
+ * finish loading, and a file which fails to load yields a {@link Failed} result instead of failing the whole corpus.
+ * </p>
+ * <p>
+ * Only a bounded number of files are loading or waiting to be consumed at any time, and the next file is submitted
+ * whenever a result is consumed, so memory use depends on how fast the stream is consumed rather than on the size of
+ * the corpus.
+ * </p>
+ */
+public final class PuzzleCorpus {
+
+    /**
+     * The extension of puzzle files.
+     */
+    public static final String EXTENSION = ".game";
+
+    /**
+     * The default maximum number of files loading or waiting to be consumed at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The result of loading a single puzzle file.
+     */
+    public sealed interface Result permits Loaded, Failed {
+
+        /**
+         * @return The puzzle file. For an archive, this belongs to the file system of the archive, and can only be
+         * accessed until the stream is closed.
+         */
+        @NotNull
+        Path file();
+    }
+
+    /**
+     * A puzzle file which has been loaded successfully.
+     *
+     * @param file       The puzzle file.
+     * @param gameStates The game states of the puzzle, one for each player.
+     */
+    public record Loaded(@NotNull Path file, @NotNull GameState[] gameStates) implements Result {
+    }
+
+    /**
+     * A puzzle file which cannot be loaded, because it cannot be read, is malformed, or fails validation.
+     *
+     * @param file  The puzzle file.
+     * @param error The exception or error thrown while loading the file.
+     */
+    public record Failed(@NotNull Path file, @NotNull Throwable error) implements Result {
+    }
+
+    private PuzzleCorpus() {
+    }
+
+    /**
+     * Loads a corpus on the common {@link ForkJoinPool}.
+     *
+     * @param source The directory, ZIP archive, or puzzle file to load.
+     * @return A stream of the result of each puzzle file, which should be closed after use.
+     * @throws NoSuchFileException if {@code source} does not exist.
+     * @throws IOException         if {@code source} cannot be listed or opened as an archive.
+     * @see PuzzleCorpus#load(Path, Executor)
+     */
+    @NotNull
+    public static Stream<Result> load(@NotNull final Path source) throws IOException {
+        return load(source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads a corpus, parsing up to {@link PuzzleCorpus#DEFAULT_MAX_IN_FLIGHT} puzzle files in parallel.
+     *
+     * @param source   The directory, ZIP archive, or puzzle file to load.
+     * @param executor The executor to parse the files on.
+     * @return A stream of the result of each puzzle file, in the order they finish loading.
+     * @throws NoSuchFileException if {@code source} does not exist.
+     * @throws IOException         if {@code source} cannot be listed or opened as an archive.
+     * @see PuzzleCorpus#load(Path, Executor, int)
+     */
+    @NotNull
+    public static Stream<Result> load(@NotNull final Path source, @NotNull final Executor executor)
+            throws IOException {
+        return load(source, executor, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Loads a corpus, parsing its puzzle files in parallel.
+     *
+     * <p>
+     * The first {@code maxInFlight} files are submitted to {@code executor} when this method is called, and another
+     * file is submitted each time a result is taken from the returned stream, which blocks until the next result is
+     * available. Closing the stream stops submitting files, cancels the files which have not started loading, and
+     * closes the archive if {@code source} is an archive.
+     * </p>
+     *
+     * @param source      The directory, ZIP archive, or puzzle file to load.
+     * @param executor    The executor to parse the files on.
+     * @param maxInFlight The maximum number of files loading or waiting to be consumed at the same time.
+     * @return A stream of the result of each puzzle file, in the order they finish loading.
+     * @throws NoSuchFileException     if {@code source} does not exist.
+     * @throws IOException              if {@code source} cannot be listed or opened as an archive.
+     * @throws IllegalArgumentException if {@code maxInFlight} is not positive.
+     */
+    @NotNull
+    public static Stream<Result> load(@NotNull final Path source, @NotNull final Executor executor,
+                                      final int maxInFlight) throws IOException {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(executor);
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        final var archive = openArchive(source);
+        try {
+            final var root = archive != null ? archive.getRootDirectories().iterator().next() : source;
+            final var files = listPuzzleFiles(root);
+            final var window = new LoadWindow(files, executor, maxInFlight);
+
+            return Stream.generate(window::next)
+                    .limit(files.size())
+                    .onClose(() -> {
+                        window.close();
+                        close(archive);
+                    });
+        } catch (IOException | RuntimeException e) {
+            close(archive);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens {@code source} as an archive if it is neither a directory nor a puzzle file.
+     *
+     * @param source The directory, ZIP archive, or puzzle file to load.
+     * @return The archive file system, or {@code null} if {@code source} is a directory or a puzzle file.
+     * @throws NoSuchFileException if {@code source} does not exist.
+     * @throws IOException         if {@code source} cannot be opened as an archive.
+     */
+    @Nullable
+    private static FileSystem openArchive(@NotNull final Path source) throws IOException {
+        if (!Files.exists(source)) {
+            throw new NoSuchFileException(source.toString());
+        }
+        if (Files.isDirectory(source) || isPuzzleFile(source)) {
+            return null;
+        }
+        try {
+            return FileSystems.newFileSystem(source);
+        } catch (ProviderNotFoundException | FileSystemNotFoundException e) {
+            throw new IOException("Not a directory, puzzle file or archive: " + source, e);
+        }
+    }
+
+    /**
+     * A sliding window of puzzle files being loaded, which submits the next file whenever a result is taken.
+     */
+    private static final class LoadWindow {
+
+        @NotNull
+        private final List<Path> files;
+
+        @NotNull
+        private final Executor executor;
+
+        /**
+         * Results which have not been taken yet. Since a file is only submitted when a result is taken, there are never
+         * more results than the capacity of the queue.
+         */
+        @NotNull
+        private final BlockingQueue<Result> results;
+
+        /**
+         * Loads which have not completed yet.
+         */
+        @NotNull
+        private final Set<CompletableFuture<Result>> pending = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Index of the next file to submit. Only accessed by the thread consuming the stream.
+         */
+        private int nextFile = 0;
+
+        private volatile boolean closed = false;
+
+        LoadWindow(@NotNull final List<Path> files, @NotNull final Executor executor, final int maxInFlight) {
+            this.files = files;
+            this.executor = executor;
+            this.results = new ArrayBlockingQueue<>(maxInFlight);
+
+            for (int i = 0; i < maxInFlight; ++i) {
+                submitNext();
+            }
+        }
+
+        /**
+         * @return The next result, waiting for it if necessary.
+         */
+        @NotNull
+        Result next() {
+            try {
+                final var result = results.take();
+                submitNext();
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Stops submitting files, and cancels the loads which have not started yet.
+         */
+        void close() {
+            closed = true;
+            pending.forEach(future -> future.cancel(false));
+        }
+
+        private void submitNext() {
+            if (closed || nextFile == files.size()) {
+                return;
+            }
+
+            final var file = files.get(nextFile++);
+            final var future = CompletableFuture.supplyAsync(() -> loadFile(file), executor);
+            pending.add(future);
+            // Every load delivers exactly one result, even if it throws an Error or is cancelled, so that the consumer
+            // is never blocked forever
+            future.whenComplete((result, error) -> {
+                pending.remove(future);
+                results.add(result != null ? result : new Failed(file, unwrap(error)));
+            });
+        }
+
+        @NotNull
+        private static Throwable unwrap(@NotNull final Throwable error) {
+            return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        }
+    }
+
+    /**
+     * @param path A path.
+     * @return Whether {@code path} is a regular file with the {@link PuzzleCorpus#EXTENSION} extension.
+     */
+    private static boolean isPuzzleFile(@NotNull final Path path) {
+        final var fileName = path.getFileName();
+        return fileName != null && fileName.toString().endsWith(EXTENSION) && Files.isRegularFile(path);
+    }
+
+    /**
+     * @param root A directory or a puzzle file.
+     * @return All puzzle files under {@code root}, in lexicographical order.
+     * @throws IOException if {@code root} cannot be listed.
+     */
+    @NotNull
+    private static List<Path> listPuzzleFiles(@NotNull final Path root) throws IOException {
+        try (var paths = Files.walk(root)) {
+            return paths.filter(PuzzleCorpus::isPuzzleFile).sorted().toList();
+        }
+    }
+
+    /**
+     * Loads a single puzzle file, capturing any error.
+     *
+     * <p>
+     * Files on the default file system are memory-mapped by {@link GameStateSerializer#loadFrom(Path)}. Files in an
+     * archive cannot be mapped, so they are read into memory and parsed from a buffer instead.
+     * </p>
+     *
+     * @param file The puzzle file.
+     * @return The result of loading {@code file}.
+     */
+    @NotNull
+    private static Result loadFile(@NotNull final Path file) {
+        try {
+            final var gameStates = file.getFileSystem() == FileSystems.getDefault()
+                    ? GameStateSerializer.loadFrom(file)
+                    : GameStateSerializer.loadFrom(ByteBuffer.wrap(Files.readAllBytes(file)));
+            return new Loaded(file, gameStates);
+        } catch (Exception e) {
+            return new Failed(file, e);
+        }
+    }
+
+    /**
+     * @param archive The archive to close, or {@code null} if there is no archive.
+     */
+    private static void close(@Nullable final FileSystem archive) {
+        if (archive == null) {
+            return;
+        }
+
+        try {
+            archive.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
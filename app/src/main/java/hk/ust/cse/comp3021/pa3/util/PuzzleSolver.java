@@ -0,0 +1,181 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
+import hk.ust.cse.comp3021.pa3.model.BoardSnapshot;
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves a {@link GameBoard} for a single player, i.e. finds a sequence of moves which collects all gems.
+ *
+ * <p>
+ * The solver searches the state space of (position of the player, set of remaining gems) breadth-first, so that the
+ * first solution found uses the minimum number of moves. Lives are not part of the state: Hitting a mine never changes
+ * the position of the player or the gems, and gems and extra lives never block a move, so a shortest solution never
+ * hits a mine and never depends on the number of lives. Other players are treated as walls at their current positions.
+ * </p>
+ * <p>
+ * The search is shared with {@link GemCollectorPlanner} and provided by {@link GemSearch}: Each depth of the search is
+ * expanded in parallel by splitting the frontier into work-stealing tasks, and visited states are stored in a
+ * transposition table keyed by the Zobrist hash of the state, which is updated incrementally as the player moves and
+ * collects gems using the keys of {@link GameBoard#zobristKey}.
+ * </p>
+ * <p>
+ * If the game board has more than {@link PuzzleSolver#MAX_EXACT_GEMS} gems, or the search visits more states than
+ * allowed, the solver falls back to a greedy solution which repeatedly makes the shortest sequence of moves collecting
+ * at least one more gem. Such a solution is not necessarily optimal.
+ * </p>
+ * <p>
+ * A {@link BoardSnapshot} of the game board is taken when the solver is created, so later changes to the game board are
+ * not observed.
+ * </p>
+ */
+public final class PuzzleSolver {
+
+    /**
+     * The maximum number of gems for which an optimal solution is searched for.
+     */
+    public static final int MAX_EXACT_GEMS = Long.SIZE;
+
+    /**
+     * The default maximum number of states visited when searching for an optimal solution.
+     */
+    public static final int DEFAULT_MAX_STATES = 4_000_000;
+
+    /**
+     * A solution of a game board.
+     *
+     * @param directions The directions to move the player in, in order.
+     * @param optimal    Whether the solution is known to use the minimum number of moves.
+     */
+    public record Solution(@NotNull List<Direction> directions, boolean optimal) {
+
+        public Solution {
+            directions = List.copyOf(directions);
+        }
+
+        /**
+         * @return The number of moves in this solution.
+         */
+        public int numMoves() {
+            return directions.size();
+        }
+    }
+
+    /**
+     * The snapshot of the game board taken when this solver is created.
+     */
+    @NotNull
+    private final BoardSnapshot snapshot;
+
+    /**
+     * The slot of the player in {@link PuzzleSolver#snapshot}.
+     */
+    private final int playerSlot;
+
+    private final int maxStates;
+
+    /**
+     * Creates an instance with {@link PuzzleSolver#DEFAULT_MAX_STATES}.
+     *
+     * @param gameBoard The game board to solve.
+     * @param player    The player collecting the gems.
+     */
+    public PuzzleSolver(@NotNull final GameBoard gameBoard, @NotNull final Player player) {
+        this(gameBoard, player, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameBoard The game board to solve.
+     * @param player    The player collecting the gems.
+     * @param maxStates The maximum number of states visited when searching for an optimal solution.
+     * @throws IllegalArgumentException if {@code player} is not on {@code gameBoard}, or {@code maxStates} is not
+     *                                  positive.
+     */
+    public PuzzleSolver(@NotNull final GameBoard gameBoard, @NotNull final Player player, final int maxStates) {
+        Objects.requireNonNull(gameBoard);
+        Objects.requireNonNull(player);
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.snapshot = gameBoard.snapshot();
+        this.playerSlot = gameBoard.slotOf(player);
+        if (playerSlot < 0 || snapshot.getPlayerIndex(playerSlot) == BoardLayers.NONE) {
+            throw new IllegalArgumentException("The player is not on the game board");
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Solves the game board on the common {@link ForkJoinPool}.
+     *
+     * @param maxMoves The maximum number of moves of the solution.
+     * @return The solution, or an empty {@link Optional} if no solution is found within {@code maxMoves} moves.
+     * @see PuzzleSolver#solve(int, ForkJoinPool)
+     */
+    @NotNull
+    public Optional<Solution> solve(final int maxMoves) {
+        return solve(maxMoves, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves the game board.
+     *
+     * <p>
+     * If an optimal solution is searched for, an empty result proves that there is no solution within
+     * {@code maxMoves} moves. Otherwise, there may still be a solution which the greedy search cannot find.
+     * </p>
+     *
+     * @param maxMoves The maximum number of moves of the solution.
+     * @param pool     The pool to run the search on.
+     * @return The solution, or an empty {@link Optional} if no solution is found within {@code maxMoves} moves.
+     * @throws IllegalArgumentException if {@code maxMoves} is negative.
+     */
+    @NotNull
+    public Optional<Solution> solve(final int maxMoves, @NotNull final ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        if (maxMoves < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (snapshot.getNumGems() <= MAX_EXACT_GEMS) {
+            final var directions = GemSearch.allGems(snapshot, playerSlot, maxMoves, maxStates, pool);
+            if (directions != null) {
+                return directions.map(d -> new Solution(d, true));
+            }
+        }
+        return searchGreedy(maxMoves);
+    }
+
+    /**
+     * Searches for a solution by repeatedly collecting the nearest gems.
+     */
+    @NotNull
+    private Optional<Solution> searchGreedy(final int maxMoves) {
+        final var directions = new ArrayList<Direction>();
+        var current = snapshot;
+        while (current.getNumGems() > 0) {
+            final var path = GemSearch.nearestGems(current, playerSlot, maxMoves - directions.size());
+            if (path == null) {
+                return Optional.empty();
+            }
+
+            for (final var direction : path) {
+                current = Objects.requireNonNull(current.move(playerSlot, direction));
+            }
+            directions.addAll(path);
+        }
+        return Optional.of(new Solution(directions, false));
+    }
+}
@@ -1,12 +1,20 @@
 package hk.ust.cse.comp3021.pa3.util;
 
+import hk.ust.cse.comp3021.pa3.controller.MoveProbe;
 import hk.ust.cse.comp3021.pa3.model.Direction;
 import hk.ust.cse.comp3021.pa3.model.GameState;
 import hk.ust.cse.comp3021.pa3.model.MoveResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The Robot is an automated worker that can delegate the movement control of a player.
@@ -24,6 +32,23 @@ public class Robot implements MoveDelegate {
      */
     public static Generator<Long> timeIntervalGenerator = TimeIntervalGenerator.everySecond();
 
+    /**
+     * The scheduler shared by all robots, on which the moves of the robots are made.
+     *
+     * <p>
+     * Robots do not own any thread; Each robot only has at most one pending move on this scheduler at any time, so that
+     * many robots can be run with a small, fixed number of threads.
+     * </p>
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            runnable -> {
+                final var thread = new Thread(runnable, "robot-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
     /**
      * e.printStackTrace();
      * The game state of thee.printStackTrace(); player that the robot delegates.
@@ -35,6 +60,36 @@ public class Robot implements MoveDelegate {
      */
     private final Strategy strategy;
 
+    /**
+     * The planner of the {@link Strategy#Smart} strategy, which caches its plan across moves.
+     */
+    @Nullable
+    private final GemCollectorPlanner planner;
+
+    /**
+     * The evaluator of the {@link Strategy#Smart} strategy, used when the planner cannot reach any gem.
+     */
+    @Nullable
+    private final MoveEvaluator evaluator;
+
+    /**
+     * Lock held while this robot is making a move.
+     */
+    private final ReentrantLock moveLock = new ReentrantLock();
+
+    /**
+     * Flag of the current delegation which is cleared when the delegation is stopped, or {@code null} if there is no
+     * delegation running.
+     */
+    @Nullable
+    private AtomicBoolean delegation = null;
+
+    /**
+     * The pending move of the current delegation on {@link Robot#SCHEDULER}.
+     */
+    @Nullable
+    private ScheduledFuture<?> nextMove = null;
+
     public Robot(GameState gameState) {
         this(gameState, Strategy.Random);
     }
@@ -42,52 +97,154 @@ public class Robot implements MoveDelegate {
     public Robot(GameState gameState, Strategy strategy) {
         this.strategy = strategy;
         this.gameState = gameState;
+        this.planner = strategy == Strategy.Smart ? new GemCollectorPlanner(gameState) : null;
+        this.evaluator = strategy == Strategy.Smart ? new MoveEvaluator() : null;
     }
 
     /**
-     * TODO Start the delegation in a new thread.
-     * The delegation should run in a separate thread.
-     * This method should return immediately when the thread is started.
+     * Start the delegation on the shared scheduler.
+     * This method returns immediately after the first move is scheduled.
      * <p>
      * In the delegation of the control of the player,
      * the time interval between moves should be obtained from {@link Robot#timeIntervalGenerator}.
-     * That is to say, the new thread should:
+     * That is to say, this method:
      * <ol>
-     *   <li>Stop all existing threads by calling {@link Robot#stopDelegation()}</li>
-     *   <li>Start a new thread. And inside the thread:</li>
+     *   <li>Stops the existing delegation by calling {@link Robot#stopDelegation()}</li>
+     *   <li>Schedules a move on {@link Robot#SCHEDULER}. And inside the scheduled task:</li>
      *   <ul>
-     *      <li>Wait for some time (obtained from {@link TimeIntervalGenerator#next()}</li>
      *      <li>Make a move, call {@link Robot#makeMoveRandomly(MoveProcessor)} or
      *      {@link Robot#makeMoveSmartly(MoveProcessor)} according to {@link Robot#strategy}</li>
-     *      <li>repeat</li>
+     *      <li>Schedule the next move after some time (obtained from {@link TimeIntervalGenerator#next()})</li>
      *   </ul>
      * </ol>
-     * The started thread should be able to exit when {@link Robot#stopDelegation()} is called.
+     * No thread sleeps between moves; The delegation stops scheduling moves when {@link Robot#stopDelegation()} is
+     * called.
      * <p>
      *
      * @param processor The processor to make movements.
      */
     @Override
     public void startDelegation(@NotNull MoveProcessor processor) {
+        Objects.requireNonNull(processor);
+
+        stopDelegation();
+
+        synchronized (this) {
+            // Another delegation may have been started concurrently after stopping
+            if (this.delegation != null) {
+                this.delegation.set(false);
+                Objects.requireNonNull(nextMove).cancel(false);
+            }
 
+            final var delegation = new AtomicBoolean(true);
+            this.delegation = delegation;
+            scheduleNextMove(delegation, processor);
+        }
     }
 
     /**
-     * TODO Stop the delegations, i.e., stop the thread of this instance.
-     * When this method returns, the thread must have exited already.
+     * Stop the delegation, i.e., cancel the pending move of this instance.
+     * When this method returns, the move in progress (if any) must have finished already, and no more moves will be
+     * made.
      */
     @Override
     public void stopDelegation() {
+        final ScheduledFuture<?> pendingMove;
+        synchronized (this) {
+            if (delegation == null) {
+                return;
+            }
+            delegation.set(false);
+            delegation = null;
+            pendingMove = nextMove;
+            nextMove = null;
+        }
 
+        if (pendingMove != null) {
+            pendingMove.cancel(false);
+        }
+
+        // Wait for the move in progress to finish
+        moveLock.lock();
+        moveLock.unlock();
     }
 
-    private MoveResult tryMove(Direction direction) {
+    /**
+     * Schedules the next move of a delegation on {@link Robot#SCHEDULER}.
+     *
+     * @param delegation The flag of the delegation.
+     * @param processor  The processor to make movements.
+     */
+    private synchronized void scheduleNextMove(@NotNull AtomicBoolean delegation, @NotNull MoveProcessor processor) {
+        if (!delegation.get()) {
+            return;
+        }
+
+        final var delay = Math.max(0, timeIntervalGenerator.next());
+        nextMove = SCHEDULER.schedule(() -> makeScheduledMove(delegation, processor), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes a single move of a delegation, then schedules the next move.
+     *
+     * <p>
+     * If the move throws, the exception is reported to the uncaught exception handler of the scheduler thread, as if
+     * it were thrown by a thread running the robot, and the next move is still scheduled. Otherwise, the exception
+     * would be silently kept in the {@link ScheduledFuture} of the move, and the robot would stop moving.
+     * </p>
+     *
+     * @param delegation The flag of the delegation.
+     * @param processor  The processor to make movements.
+     */
+    private void makeScheduledMove(@NotNull AtomicBoolean delegation, @NotNull MoveProcessor processor) {
+        try {
+            moveLock.lock();
+            try {
+                if (!delegation.get()) {
+                    return;
+                }
+                makeMove(processor);
+            } catch (RuntimeException e) {
+                final var thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                moveLock.unlock();
+            }
+        } finally {
+            scheduleNextMove(delegation, processor);
+        }
+    }
+
+    /**
+     * Makes a single move immediately on the calling thread according to {@link Robot#strategy}.
+     * This allows the robot to be driven without a delegation, e.g. in headless simulations.
+     *
+     * @param processor The processor to make movements.
+     */
+    public void makeMove(@NotNull MoveProcessor processor) {
+        Objects.requireNonNull(processor);
+
+        switch (strategy) {
+            case Random -> makeMoveRandomly(processor);
+            case Smart -> makeMoveSmartly(processor);
+        }
+    }
+
+    /**
+     * Probes the outcome of moving the player in a direction, without allocating a {@link MoveResult}.
+     *
+     * @param direction The direction to move the player in.
+     * @return The kind of the move as defined in {@link MoveProbe}, or {@code -1} if the player is no longer on the
+     * game board.
+     */
+    private int probeMove(Direction direction) {
         var player = gameState.getPlayer();
-        if (player.getOwner() == null) {
-            return null;
+        var owner = player.getOwner();
+        if (owner == null) {
+            return -1;
         }
-        var r = gameState.getGameBoardController().tryMove(player.getOwner().getPosition(), direction, player.getId());
-        return r;
+        var code = gameState.getGameBoardController().probeMove(owner.getPosition(), direction, player.getId());
+        return MoveProbe.kindOf(code);
     }
 
     /**
@@ -97,21 +254,32 @@ public class Robot implements MoveDelegate {
      * If there is no choice but only have one dying direction to move, the robot will still choose it.
      * If there is no valid direction, i.e. can neither die nor move, the robot do not perform a move.
      * <p>
-     * TODO modify this method if you need to do thread synchronization.
+     * During a delegation, this method is called with {@link Robot#moveLock} held, so the moves of a robot never
+     * overlap, and {@link Robot#stopDelegation()} waits for the move in progress. Each probe locks the game board on
+     * its own, so other players may move between the probes and the move; This is safe because {@code processor}
+     * resolves the chosen move again under the lock of the game board.
      *
      * @param processor The processor to make movements.
      */
     private void makeMoveRandomly(MoveProcessor processor) {
-        var directions = new ArrayList<>(Arrays.asList(Direction.values()));
-        Collections.shuffle(directions);
+        // Shuffle the fresh array returned by values() in place, instead of copying it into a list
+        final var directions = Direction.values();
+        final var random = ThreadLocalRandom.current();
+        for (int i = directions.length - 1; i > 0; --i) {
+            final var j = random.nextInt(i + 1);
+            final var direction = directions[i];
+            directions[i] = directions[j];
+            directions[j] = direction;
+        }
+
         Direction aliveDirection = null;
         Direction deadDirection = null;
         for (var direction :
                 directions) {
-            var result = tryMove(direction);
-            if (result instanceof MoveResult.Valid.Alive) {
+            var kind = probeMove(direction);
+            if (kind == MoveProbe.ALIVE) {
                 aliveDirection = direction;
-            } else if (result instanceof MoveResult.Valid.Dead) {
+            } else if (kind == MoveProbe.DEAD) {
                 deadDirection = direction;
             }
         }
@@ -123,7 +291,6 @@ public class Robot implements MoveDelegate {
     }
 
     /**
-     * TODO implement this method
      * The robot moves with a smarter strategy compared to random.
      * This strategy is expected to beat random strategy in most of the time.
      * That is to say we will let random robot and smart robot compete with each other and repeat many (>10) times
@@ -131,11 +298,23 @@ public class Robot implements MoveDelegate {
      * You will get the grade if the robot with your implementation can win in more than half of the total runs
      * (e.g., at least 6 when total is 10).
      * <p>
+     * The robot follows the plan of a {@link GemCollectorPlanner} to collect the remaining gems. If no gem can be
+     * safely reached, e.g. because other players are in the way, the robot makes the safe move scored best by a
+     * {@link MoveEvaluator}, which looks several moves ahead in parallel. Only if there is no safe move, the robot
+     * falls back to {@link Robot#makeMoveRandomly(MoveProcessor)}.
      *
      * @param processor The processor to make movements.
      */
     private void makeMoveSmartly(MoveProcessor processor) {
-
+        var direction = Objects.requireNonNull(planner).nextDirection();
+        if (direction == null) {
+            direction = Objects.requireNonNull(evaluator).bestDirection(gameState);
+        }
+        if (direction == null) {
+            makeMoveRandomly(processor);
+            return;
+        }
+        processor.move(direction);
     }
 
 }
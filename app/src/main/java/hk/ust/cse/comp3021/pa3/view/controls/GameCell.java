@@ -5,9 +5,9 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The UI element representing a cell of the game board.
@@ -20,29 +20,49 @@ public class GameCell extends ImageView {
      * @param cell The {@link Cell} to be displayed.
      */
     public GameCell(Cell cell) {
-        Image image = loadImageForCell(cell);
-        this.setImage(image);
+        this.setCell(cell);
         this.setFitHeight(40);
         this.setFitWidth(40);
     }
 
+    /**
+     * Updates the displayed image to that of the specified {@link Cell}.
+     *
+     * <p>
+     * Since images are cached, this is cheap when the contents of the cell have not changed.
+     * </p>
+     *
+     * @param cell The {@link Cell} to be displayed.
+     */
+    public void setCell(Cell cell) {
+        Image image = loadImageForCell(cell);
+        if (this.getImage() != image) {
+            this.setImage(image);
+        }
+    }
+
     /**
      * A map for caching the loaded image for the resource names.
      */
-    private static final Map<String, Image> IMAGE_CACHE = new HashMap<>();
+    private static final Map<String, Image> IMAGE_CACHE = new ConcurrentHashMap<>();
 
     /**
      * Loads the image for the specified {@link Cell} with caching mechanism.
      * The same image should be returned when this method is called with two cells with the same type.
      *
+     * <p>
+     * The cache is shared by all renderers of the game board, such as {@link GameCell} and
+     * {@link hk.ust.cse.comp3021.pa3.view.panes.GameBoardCanvasPane}.
+     * </p>
+     *
      * @param cell The {@link Cell}
      * @return The corresponding {@link Image} for the {@link Cell}.
      */
     @NotNull
-    private Image loadImageForCell(Cell cell) {
+    public static Image loadImageForCell(Cell cell) {
         var resourceName = getResourceNameByCell(cell);
         return IMAGE_CACHE.computeIfAbsent(resourceName, rn -> {
-            var resourceUrl = Objects.requireNonNull(getClass().getResource(rn));
+            var resourceUrl = Objects.requireNonNull(GameCell.class.getResource(rn));
             return new Image(resourceUrl.toExternalForm());
         });
     }
@@ -0,0 +1,359 @@
+package hk.ust.cse.comp3021.pa3.view.panes;
+
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.view.controls.GameCell;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+/**
+ * A {@link javafx.scene.layout.Pane} which draws a {@link GameBoard} onto a {@link Canvas}.
+ *
+ * <p>
+ * Unlike {@link GameBoardPane}, this pane does not create a node for each cell, and is meant for large game boards.
+ * </p>
+ * <ul>
+ *     <li>The canvas is only as large as the pane, and only the cells inside the viewport are drawn.</li>
+ *     <li>The viewport can be zoomed with the mouse wheel (around the mouse cursor), panned by dragging with the
+ *     primary mouse button, and reset by double-clicking.</li>
+ *     <li>After a move, only the rectangles of the affected cells are repainted. The whole viewport is only repainted
+ *     when the game board, the viewport, or the size of the pane changes.</li>
+ * </ul>
+ * <p>
+ * Images of cells are shared with {@link GameCell} via {@link GameCell#loadImageForCell}. All drawing happens on the
+ * JavaFX application thread; moves reported from other threads only mark the affected cells as dirty.
+ * </p>
+ */
+public class GameBoardCanvasPane extends Pane implements GameBoardRenderer {
+
+    /**
+     * The size of a cell in pixels at a zoom level of {@code 1}, which is the same as a {@link GameCell}.
+     */
+    static final double CELL_SIZE = 40;
+
+    /**
+     * The minimum zoom level.
+     */
+    static final double MIN_ZOOM = 0.05;
+
+    /**
+     * The maximum zoom level.
+     */
+    static final double MAX_ZOOM = 4;
+
+    /**
+     * The maximum preferred size of the pane in pixels, in each dimension.
+     */
+    private static final double MAX_PREF_SIZE = 800;
+
+    /**
+     * The color drawn behind cells, and outside the game board.
+     */
+    private static final Color BACKGROUND = Color.gray(0.15);
+
+    @NotNull
+    private final Canvas canvas = new Canvas();
+
+    /**
+     * The game board currently displayed, or {@code null} if no game board has been shown.
+     */
+    @Nullable
+    private volatile GameBoard gameBoard = null;
+
+    /**
+     * Row-major indices of the cells which need to be repainted. Guarded by itself.
+     */
+    @NotNull
+    private final BitSet dirtyCells = new BitSet();
+
+    /**
+     * Whether the whole viewport needs to be repainted. Guarded by {@link GameBoardCanvasPane#dirtyCells}.
+     */
+    private boolean fullRepaint = true;
+
+    /**
+     * Whether a repaint has been scheduled on the JavaFX application thread. Guarded by
+     * {@link GameBoardCanvasPane#dirtyCells}.
+     */
+    private boolean repaintScheduled = false;
+
+    /**
+     * The zoom level of the viewport.
+     */
+    private double zoom = 1;
+
+    /**
+     * The position of the top-left corner of the game board relative to the canvas, in pixels.
+     */
+    private double offsetX = 0;
+
+    /**
+     * The position of the top-left corner of the game board relative to the canvas, in pixels.
+     */
+    private double offsetY = 0;
+
+    /**
+     * The mouse position of the last drag event, in pixels.
+     */
+    private double dragX;
+
+    /**
+     * The mouse position of the last drag event, in pixels.
+     */
+    private double dragY;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initializeComponents() {
+        this.getChildren().add(canvas);
+        this.setMinSize(0, 0);
+
+        // The canvas always covers the pane, and is repainted when it is resized
+        canvas.widthProperty().bind(this.widthProperty());
+        canvas.heightProperty().bind(this.heightProperty());
+        canvas.widthProperty().addListener((observable, oldValue, newValue) -> requestFullRepaint());
+        canvas.heightProperty().addListener((observable, oldValue, newValue) -> requestFullRepaint());
+
+        this.addEventHandler(ScrollEvent.SCROLL, this::onScroll);
+        this.addEventHandler(MouseEvent.MOUSE_PRESSED, this::onMousePressed);
+        this.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::onMouseDragged);
+        this.addEventHandler(MouseEvent.MOUSE_CLICKED, this::onMouseClicked);
+    }
+
+    /**
+     * Updates the game board display with latest {@link GameState}.
+     *
+     * <p>
+     * If the game board differs from the one currently displayed, the viewport is reset.
+     * </p>
+     *
+     * @param gameStates The latest {@link GameState} instances of all players.
+     */
+    @Override
+    public void showGameState(GameState... gameStates) {
+        if (gameStates.length < 1) {
+            throw new IllegalArgumentException();
+        }
+        // since all gameStates of all players refer to the same gameBoard,
+        // we can simply use the first one.
+        var gameBoard = gameStates[0].getGameBoard();
+        if (gameBoard != this.gameBoard) {
+            this.gameBoard = gameBoard;
+            this.setPrefSize(
+                    Math.min(gameBoard.getNumCols() * CELL_SIZE, MAX_PREF_SIZE),
+                    Math.min(gameBoard.getNumRows() * CELL_SIZE, MAX_PREF_SIZE)
+            );
+            runOnFxThread(this::resetViewport);
+        }
+        requestFullRepaint();
+    }
+
+    /**
+     * Updates the cells of the game board display which are affected by a move.
+     *
+     * <p>
+     * The affected cells are marked as dirty, and only their rectangles are repainted. This method can be called on
+     * any thread.
+     * </p>
+     *
+     * @param moveResult The result of the move which has been applied to the displayed game board.
+     */
+    @Override
+    public void showMove(@NotNull MoveResult moveResult) {
+        var gameBoard = this.gameBoard;
+        if (gameBoard == null) {
+            throw new IllegalStateException();
+        }
+
+        synchronized (dirtyCells) {
+            GameBoardRenderer.forEachAffectedPosition(moveResult, p -> dirtyCells.set(gameBoard.indexOf(p)));
+        }
+        requestRepaint();
+    }
+
+    /**
+     * Zooms the viewport around the mouse cursor.
+     *
+     * @param e The scroll event.
+     */
+    private void onScroll(@NotNull ScrollEvent e) {
+        if (e.getDeltaY() == 0) {
+            return;
+        }
+
+        var newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * Math.pow(1.1, e.getDeltaY() / 40)));
+        // Keep the point of the game board under the cursor fixed
+        offsetX = e.getX() - (e.getX() - offsetX) * newZoom / zoom;
+        offsetY = e.getY() - (e.getY() - offsetY) * newZoom / zoom;
+        zoom = newZoom;
+
+        requestFullRepaint();
+        e.consume();
+    }
+
+    /**
+     * Starts panning the viewport.
+     *
+     * @param e The mouse event.
+     */
+    private void onMousePressed(@NotNull MouseEvent e) {
+        dragX = e.getX();
+        dragY = e.getY();
+    }
+
+    /**
+     * Pans the viewport.
+     *
+     * @param e The mouse event.
+     */
+    private void onMouseDragged(@NotNull MouseEvent e) {
+        if (e.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+
+        offsetX += e.getX() - dragX;
+        offsetY += e.getY() - dragY;
+        dragX = e.getX();
+        dragY = e.getY();
+
+        requestFullRepaint();
+        e.consume();
+    }
+
+    /**
+     * Resets the viewport on double-click.
+     *
+     * @param e The mouse event.
+     */
+    private void onMouseClicked(@NotNull MouseEvent e) {
+        if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+            resetViewport();
+            requestFullRepaint();
+            e.consume();
+        }
+    }
+
+    /**
+     * Resets the viewport so that the game board is shown at a zoom level of {@code 1}, from its top-left corner.
+     */
+    private void resetViewport() {
+        zoom = 1;
+        offsetX = 0;
+        offsetY = 0;
+    }
+
+    /**
+     * Marks the whole viewport as dirty and schedules a repaint.
+     */
+    private void requestFullRepaint() {
+        synchronized (dirtyCells) {
+            fullRepaint = true;
+        }
+        requestRepaint();
+    }
+
+    /**
+     * Schedules a repaint on the JavaFX application thread, unless one is already scheduled.
+     */
+    private void requestRepaint() {
+        synchronized (dirtyCells) {
+            if (repaintScheduled) {
+                return;
+            }
+            repaintScheduled = true;
+        }
+        runOnFxThread(this::repaint);
+    }
+
+    /**
+     * Repaints the dirty parts of the canvas. Must be called on the JavaFX application thread.
+     */
+    private void repaint() {
+        var gameBoard = this.gameBoard;
+
+        final boolean full;
+        final BitSet dirty;
+        synchronized (dirtyCells) {
+            repaintScheduled = false;
+            full = fullRepaint;
+            fullRepaint = false;
+            dirty = (BitSet) dirtyCells.clone();
+            dirtyCells.clear();
+        }
+
+        if (gameBoard == null) {
+            return;
+        }
+
+        var numCols = gameBoard.getNumCols();
+        var cellSize = CELL_SIZE * zoom;
+
+        // Cull the cells outside the viewport
+        var firstRow = Math.max(0, (int) Math.floor(-offsetY / cellSize));
+        var lastRow = Math.min(gameBoard.getNumRows() - 1, (int) Math.floor((canvas.getHeight() - offsetY) / cellSize));
+        var firstCol = Math.max(0, (int) Math.floor(-offsetX / cellSize));
+        var lastCol = Math.min(numCols - 1, (int) Math.floor((canvas.getWidth() - offsetX) / cellSize));
+
+        var gc = canvas.getGraphicsContext2D();
+        if (full) {
+            gc.setFill(BACKGROUND);
+            gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstCol; c <= lastCol; c++) {
+                    drawCell(gameBoard, r * numCols + c, cellSize);
+                }
+            }
+            return;
+        }
+
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            var r = i / numCols;
+            var c = i % numCols;
+            if (r >= firstRow && r <= lastRow && c >= firstCol && c <= lastCol) {
+                drawCell(gameBoard, i, cellSize);
+            }
+        }
+    }
+
+    /**
+     * Draws a single cell onto its rectangle of the canvas.
+     *
+     * @param gameBoard The displayed game board.
+     * @param index     The row-major index of the cell.
+     * @param cellSize  The size of a cell in pixels.
+     */
+    private void drawCell(@NotNull GameBoard gameBoard, int index, double cellSize) {
+        var x = offsetX + (index % gameBoard.getNumCols()) * cellSize;
+        var y = offsetY + (index / gameBoard.getNumCols()) * cellSize;
+
+        var gc = canvas.getGraphicsContext2D();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(x, y, cellSize, cellSize);
+        gc.drawImage(GameCell.loadImageForCell(gameBoard.getCell(index)), x, y, cellSize, cellSize);
+    }
+
+    /**
+     * Runs an action on the JavaFX application thread, immediately if this is the current thread.
+     *
+     * @param action The action to run.
+     */
+    private static void runOnFxThread(@NotNull Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package hk.ust.cse.comp3021.pa3.view.panes;
 
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
 import hk.ust.cse.comp3021.pa3.model.GameState;
-import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Position;
 import hk.ust.cse.comp3021.pa3.view.controls.GameCell;
 import javafx.geometry.Pos;
 import javafx.scene.layout.GridPane;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A {@link javafx.scene.layout.Pane} for displaying the status of {@link hk.ust.cse.comp3021.pa3.model.GameBoard}.
+ *
+ * <p>
+ * The pane keeps one {@link GameCell} for each cell of the game board, which is created when a game board is first
+ * shown. After that, only the cells affected by a move are updated by {@link GameBoardPane#showMove(MoveResult)}.
+ * </p>
  */
-public class GameBoardPane extends GridPane implements GameUIComponent {
+public class GameBoardPane extends GridPane implements GameBoardRenderer {
+
+    /**
+     * The game board currently displayed, or {@code null} if no game board has been shown.
+     */
+    @Nullable
+    private GameBoard gameBoard = null;
+
+    /**
+     * The {@link GameCell} of each cell of {@link GameBoardPane#gameBoard}, indexed by the packed index of the cell.
+     */
+    @NotNull
+    private GameCell[] gameCells = new GameCell[0];
 
     /**
      * {@inheritDoc}
@@ -23,22 +44,77 @@ public class GameBoardPane extends GridPane implements GameUIComponent {
     /**
      * Updates the game board display with latest {@link GameState}.
      *
+     * <p>
+     * The grid of {@link GameCell} is only rebuilt if the game board differs from the one currently displayed.
+     * Otherwise, every existing {@link GameCell} is refreshed in place.
+     * </p>
+     *
      * @param gameStates The latest {@link GameState} instances of all players.
      */
+    @Override
     public void showGameState(GameState... gameStates) {
         if (gameStates.length < 1) {
             throw new IllegalArgumentException();
         }
-        this.getChildren().clear();
         // since all gameStates of all players refer to the same gameBoard,
         // we can simply use the first one.
         var gameBoard = gameStates[0].getGameBoard();
+        if (gameBoard != this.gameBoard) {
+            buildGrid(gameBoard);
+            return;
+        }
+
+        for (int i = 0; i < gameCells.length; i++) {
+            gameCells[i].setCell(gameBoard.getCell(i));
+        }
+    }
+
+    /**
+     * Updates the cells of the game board display which are affected by a move.
+     *
+     * <p>
+     * Only the {@link GameCell} instances at the positions given by
+     * {@link GameBoardRenderer#forEachAffectedPosition(MoveResult, java.util.function.Consumer)} are refreshed.
+     * </p>
+     *
+     * @param moveResult The result of the move which has been applied to the displayed game board.
+     */
+    @Override
+    public void showMove(@NotNull MoveResult moveResult) {
+        if (gameBoard == null) {
+            throw new IllegalStateException();
+        }
+
+        GameBoardRenderer.forEachAffectedPosition(moveResult, this::updateCell);
+    }
+
+    /**
+     * Replaces all children with a new grid of {@link GameCell} for the specified game board.
+     *
+     * @param gameBoard The game board to display.
+     */
+    private void buildGrid(@NotNull GameBoard gameBoard) {
+        this.getChildren().clear();
+        this.gameBoard = gameBoard;
+        this.gameCells = new GameCell[gameBoard.getNumRows() * gameBoard.getNumCols()];
         for (int x = 0; x < gameBoard.getNumRows(); x++) {
             for (int y = 0; y < gameBoard.getNumCols(); y++) {
-                var cellControl = new GameCell(gameBoard.getCell(x, y));
+                var index = x * gameBoard.getNumCols() + y;
+                var cellControl = new GameCell(gameBoard.getCell(index));
+                gameCells[index] = cellControl;
                 this.add(cellControl, y, x);
             }
         }
     }
 
+    /**
+     * Refreshes the {@link GameCell} at the specified position.
+     *
+     * @param position The position of the cell.
+     */
+    private void updateCell(@NotNull Position position) {
+        assert gameBoard != null;
+        var index = gameBoard.indexOf(position);
+        gameCells[index].setCell(gameBoard.getCell(index));
+    }
 }
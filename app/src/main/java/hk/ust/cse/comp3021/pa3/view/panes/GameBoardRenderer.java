@@ -0,0 +1,60 @@
+package hk.ust.cse.comp3021.pa3.view.panes;
+
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Position;
+import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * A UI component displaying the status of a {@link hk.ust.cse.comp3021.pa3.model.GameBoard}.
+ *
+ * <p>
+ * Implementations are {@link javafx.scene.layout.Region} instances, so that they can be placed in the scene graph.
+ * </p>
+ */
+public interface GameBoardRenderer extends GameUIComponent {
+
+    /**
+     * Updates the whole game board display with latest {@link GameState}.
+     *
+     * @param gameStates The latest {@link GameState} instances of all players.
+     */
+    void showGameState(GameState... gameStates);
+
+    /**
+     * Updates the cells of the game board display which are affected by a move.
+     *
+     * @param moveResult The result of the move which has been applied to the displayed game board.
+     */
+    void showMove(@NotNull MoveResult moveResult);
+
+    /**
+     * Visits the positions of the cells which are affected by a move.
+     *
+     * <p>
+     * The affected cells are the original and new positions of the player, and the positions of the collected gems,
+     * collected extra lives, or the mine hit in the move. This applies to undoing the move as well, since undo
+     * restores the same cells.
+     * </p>
+     *
+     * @param moveResult The result of the move.
+     * @param action     The action to perform on each affected position.
+     */
+    static void forEachAffectedPosition(@NotNull MoveResult moveResult, @NotNull Consumer<Position> action) {
+        if (moveResult.newPosition != null) {
+            action.accept(moveResult.newPosition);
+        }
+        if (moveResult instanceof MoveResult.Valid valid) {
+            action.accept(valid.origPosition);
+        }
+        if (moveResult instanceof MoveResult.Valid.Alive alive) {
+            alive.collectedGems.forEach(action);
+            alive.collectedExtraLives.forEach(action);
+        } else if (moveResult instanceof MoveResult.Valid.Dead dead) {
+            action.accept(dead.minePosition);
+        }
+    }
+}
@@ -73,7 +73,11 @@ public class GameControlPane extends GridPane implements GameUIComponent {
 
     /**
      * Performs a move action towards the specified {@link Direction}.
-     * TODO you may or may not need to do thread synchronization in this method.
+     *
+     * <p>
+     * This method may be called on the thread of a {@link MoveDelegate}. The move itself is synchronized by
+     * {@link GameController}, and the handler of the move event must not touch the scene graph directly.
+     * </p>
      *
      * @param direction The {@link Direction} to move.
      */
@@ -94,7 +98,7 @@ public class GameControlPane extends GridPane implements GameUIComponent {
     }
 
     /**
-     * TODO Delegate the control of movement from the GUI to an automated delegate.
+     * Delegate the control of movement from the GUI to an automated delegate.
      * Call the {@link MoveDelegate#startDelegation(MoveDelegate.MoveProcessor)} method of the given delegate.
      * <p>
      * After delegation, the {@link GameControlPane#upButton}, {@link GameControlPane#downButton},
@@ -104,17 +108,26 @@ public class GameControlPane extends GridPane implements GameUIComponent {
      * @param delegate The automated delegate to control the movement.
      */
     public void delegateControl(MoveDelegate delegate) {
-
+        if (this.moveDelegate != null) {
+            this.moveDelegate.stopDelegation();
+        }
+        this.moveDelegate = delegate;
+        disable();
+        delegate.startDelegation(this::move);
     }
 
     /**
-     * TODO Revoke the control from the delegate if there is any.
+     * Revoke the control from the delegate if there is any.
      * After revoking delegation, the {@link GameControlPane#upButton}, {@link GameControlPane#downButton},
      * {@link GameControlPane#leftButton}, and {@link GameControlPane#rightButton}
      * should be enabled to allow control from GUI, i.e., call {@link GameControlPane#enable()}.
      */
     public void revokeControl() {
-
+        if (this.moveDelegate != null) {
+            this.moveDelegate.stopDelegation();
+            this.moveDelegate = null;
+        }
+        enable();
     }
 
     /**
@@ -8,23 +8,37 @@ import hk.ust.cse.comp3021.pa3.model.MoveResult;
 import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
 import hk.ust.cse.comp3021.pa3.view.UIServices;
 import hk.ust.cse.comp3021.pa3.view.events.MoveEvent;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * A {@link javafx.scene.layout.Pane} representing the game play interface of the game.
  */
 public class MainGamePane extends VBox implements GameUIComponent {
-    private boolean gameEnded = false;
+    private volatile boolean gameEnded = false;
 
     private final Label gameTitle = new Label("Inertia Game");
 
-    private final GameBoardPane gameBoardPane = new GameBoardPane();
+    /**
+     * The minimum number of cells of a game board for it to be drawn by {@link GameBoardCanvasPane} instead of
+     * {@link GameBoardPane}.
+     */
+    static final int CANVAS_RENDERER_THRESHOLD = 2500;
+
+    private Region gameBoardPane;
+
+    private GameBoardRenderer gameBoardRenderer;
 
     /**
      * The list of {@link PlayerPane} instances, each of which corresponds to a player.
@@ -34,6 +48,22 @@ public class MainGamePane extends VBox implements GameUIComponent {
 
     private final GameController gameController;
 
+    /**
+     * Move events which have not been applied to the scene graph yet, in the order they are handled.
+     */
+    private final Queue<MoveEvent> pendingMoves = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Applies the pending move events at most once per pulse, so that the JavaFX application thread does not fall
+     * behind when robots move faster than the frame rate.
+     */
+    private final AnimationTimer refreshTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            applyPendingMoves();
+        }
+    };
+
     private final InertiaFxGame game;
 
     /**
@@ -66,8 +96,18 @@ public class MainGamePane extends VBox implements GameUIComponent {
         this.gameTitle.getStyleClass().add("game-title");
 
         // Initialize and add the game board pane
-        this.gameBoardPane.initializeComponents();
-        this.gameBoardPane.showGameState(gameController.getGameStates());
+        var gameBoard = getGameBoard();
+        if (gameBoard.getNumRows() * gameBoard.getNumCols() >= CANVAS_RENDERER_THRESHOLD) {
+            var canvasPane = new GameBoardCanvasPane();
+            this.gameBoardPane = canvasPane;
+            this.gameBoardRenderer = canvasPane;
+        } else {
+            var gridPane = new GameBoardPane();
+            this.gameBoardPane = gridPane;
+            this.gameBoardRenderer = gridPane;
+        }
+        this.gameBoardRenderer.initializeComponents();
+        this.gameBoardRenderer.showGameState(gameController.getGameStates());
 
         var operationArea = new HBox();
         operationArea.getChildren().add(gameBoardPane);
@@ -85,6 +125,8 @@ public class MainGamePane extends VBox implements GameUIComponent {
         );
         VBox.setVgrow(operationArea, Priority.ALWAYS);
         HBox.setHgrow(gameBoardPane, Priority.ALWAYS);
+
+        refreshTimer.start();
     }
 
     /**
@@ -102,22 +144,50 @@ public class MainGamePane extends VBox implements GameUIComponent {
 
     /**
      * {@link javafx.event.Event} handler for a game move operation triggered by {@link GameControlPane}.
-     * TODO you may or may not need to do thread synchronization in this method.
+     *
+     * <p>
+     * This may be called on the thread of a {@link hk.ust.cse.comp3021.pa3.util.Robot}, so the event is only queued
+     * here, and is applied to the scene graph by {@link MainGamePane#refreshTimer} on the next pulse.
+     * </p>
      *
      * @param e The corresponding {@link MoveEvent}.
      */
-    private synchronized void gameMoveHandler(MoveEvent e) {
+    private void gameMoveHandler(MoveEvent e) {
         if (gameEnded) {
             return;
         }
 
-        // update the gameBoardPane with the latest game states.
-        this.gameBoardPane.showGameState(gameController.getGameStates());
+        pendingMoves.add(e);
+    }
 
-        // show lose dialog if the move event indicates a player loses and get kicked out of the game board.
-        if (e.getMoveResult() instanceof MoveResult.Valid.KickedOut) {
-            getPlayerPane(e.getPlayerID()).kickOut();
-            UIServices.showLoseDialog(gameController.getGameBoard().getPlayer(e.getPlayerID()));
+    /**
+     * Applies all queued move events to the scene graph at once. Called by {@link MainGamePane#refreshTimer} on the
+     * JavaFX application thread.
+     */
+    private void applyPendingMoves() {
+        if (gameEnded || pendingMoves.isEmpty()) {
+            return;
+        }
+
+        var movedPlayerIDs = new HashSet<Integer>();
+        for (var e = pendingMoves.poll(); e != null; e = pendingMoves.poll()) {
+            movedPlayerIDs.add(e.getPlayerID());
+
+            // update the cells of the gameBoardPane affected by the move.
+            this.gameBoardRenderer.showMove(e.getMoveResult());
+
+            // show lose dialog if the move event indicates a player loses and get kicked out of the game board.
+            // dialogs cannot be shown during a pulse, so they are shown right after it.
+            if (e.getMoveResult() instanceof MoveResult.Valid.KickedOut) {
+                getPlayerPane(e.getPlayerID()).kickOut();
+                var loser = gameController.getGameBoard().getPlayer(e.getPlayerID());
+                Platform.runLater(() -> UIServices.showLoseDialog(loser));
+            }
+        }
+
+        // update the statistics of the players who have moved once for the whole batch.
+        for (var playerID : movedPlayerIDs) {
+            getPlayerPane(playerID).updateStatistics();
         }
 
         // try to get winners from the game controller
@@ -126,20 +196,25 @@ public class MainGamePane extends VBox implements GameUIComponent {
         // winners == null means the game is still on going.
         if (winners != null) {
             gameEnded = true;
+            refreshTimer.stop();
+            pendingMoves.clear();
+
             // stop all enabled robots if exist
             for (var playerPane :
                     playerPanes) {
                 playerPane.stopRobot();
             }
 
-            // show win dialog for every winner.
-            for (var winner :
-                    winners) {
-                UIServices.showWinDialog(winner);
-            }
+            Platform.runLater(() -> {
+                // show win dialog for every winner.
+                for (var winner :
+                        winners) {
+                    UIServices.showWinDialog(winner);
+                }
 
-            // return to main menu
-            if (game != null) game.showMainMenu();
+                // return to main menu
+                if (game != null) game.showMainMenu();
+            });
         }
     }
 
@@ -84,19 +84,36 @@ public class PlayerPane extends VBox implements GameUIComponent {
      * Disable the {@link PlayerPane#controlPane} and {@link PlayerPane#robotButton}.
      */
     public void kickOut() {
-        // disable move buttons
+        // stop the robot if exists, and disable move buttons
+        controlPane.revokeControl();
         controlPane.disable();
         this.robotButton.setDisable(true);
         playerStatus.setText("Status: Lost");
     }
 
+    /**
+     * Forwards a move event to the handler set by {@link PlayerPane#setOnMove(EventHandler)}.
+     *
+     * <p>
+     * This may be called on the thread of a {@link Robot}, so the statistics are not updated here. Instead, the
+     * handler is responsible for calling {@link PlayerPane#updateStatistics()} on the JavaFX application thread.
+     * </p>
+     *
+     * @param e The move event.
+     */
     private void gameMoveHandler(MoveEvent e) {
-        statisticsPane.updateStatistics();
         if (moveHandler != null) {
             moveHandler.handle(e);
         }
     }
 
+    /**
+     * Updates the {@link GameStatisticsPane} of the player with the latest game state.
+     */
+    public void updateStatistics() {
+        statisticsPane.updateStatistics();
+    }
+
     public void setOnMove(EventHandler<MoveEvent> handler) {
         moveHandler = handler;
     }
@@ -0,0 +1,95 @@
+package hk.ust.cse.comp3021.pa3;
+
+import hk.ust.cse.comp3021.pa3.util.Robot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writePuzzle() throws IOException {
+        final var file = tempDir.resolve("puzzle.game");
+        Files.writeString(file, String.join(System.lineSeparator(),
+                "3",
+                "4",
+                "",
+                "P..G",
+                ".W..",
+                "G.SG",
+                ""
+        ));
+        return file;
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Simulator - Smart Robot Finishes Game")
+    void testSimulate() throws IOException {
+        final var file = writePuzzle();
+
+        final var report = Simulator.simulate(file, 0, List.of(Robot.Strategy.Smart), 100);
+
+        assertTrue(report.finished());
+        assertEquals(1, report.players().size());
+        assertTrue(report.players().get(0).won());
+        assertTrue(report.players().get(0).numMoves() > 0);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Simulator - Report of Parallel Games")
+    void testRun() throws IOException, InterruptedException {
+        final var file = writePuzzle();
+        final var output = new ByteArrayOutputStream();
+
+        Simulator.run(List.of(file, file), 3, List.of(Robot.Strategy.Random), 1000, 4, new PrintStream(output));
+
+        final var lines = output.toString().lines().toList();
+        assertEquals(Simulator.CSV_HEADER, lines.get(0));
+        assertEquals(7, lines.size());
+        for (int i = 1; i < lines.size(); ++i) {
+            assertTrue(lines.get(i).startsWith(file + "," + (i - 1) % 3 + ","));
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Simulator - Command-Line Options")
+    void testParseOptions() {
+        final var options = Simulator.parseOptions(new String[]{
+                "--games", "2", "a.game", "--strategies", "Random,Smart", "--max-moves", "0", "--threads", "3", "b.game"
+        });
+        assertEquals(List.of(Path.of("a.game"), Path.of("b.game")), options.files());
+        assertEquals(2, options.numGames());
+        assertEquals(List.of(Robot.Strategy.Random, Robot.Strategy.Smart), options.strategies());
+        assertEquals(0, options.maxMoves());
+        assertEquals(3, options.numThreads());
+
+        final String[][] invalid = {
+                {},
+                {"a.game", "--games"},
+                {"--games", "two", "a.game"},
+                {"--threads", "0", "a.game"},
+                {"--games", "0", "a.game"},
+                {"--max-moves", "-1", "a.game"},
+                {"--strategies", "Random,", "a.game"},
+                {"--verbose", "a.game"},
+        };
+        for (final var args : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> Simulator.parseOptions(args), String.join(" ", args));
+        }
+    }
+}
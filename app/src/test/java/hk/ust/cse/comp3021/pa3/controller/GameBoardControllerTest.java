@@ -12,6 +12,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import java.util.Collections;
+import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -701,6 +702,136 @@ public class GameBoardControllerTest {
         assertTrue(gameBoard.getEntityCell(1, 3).getEntity() instanceof Gem);
     }
 
+    // P*L#
+    // ...*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Counters - Make Move and Undo Move")
+    void testCountersMakeAndUndoMove() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 4, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1)) || pos.equals(new Position(1, 3))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (pos.equals(new Position(0, 3))) {
+                return new StopCell(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        controller = new GameBoardController(gameBoard);
+        final var playerId = gameBoard.getPlayer().getId();
+
+        assumeTrue(gameBoard.getNumGems() == 2);
+        assumeTrue(gameBoard.getNumCells(BoardLayers.EXTRA_LIFE) == 1);
+
+        final var moveResult = controller.makeMove(Direction.RIGHT);
+
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(0, gameBoard.getNumCells(BoardLayers.EXTRA_LIFE));
+        assertEquals(1, gameBoard.getNumCells(BoardLayers.PLAYER));
+        assertEquals(1, gameBoard.getNumCollectedGems(playerId));
+        assertEquals(1, gameBoard.getNumCollectedExtraLives(playerId));
+
+        controller.undoMove(Objects.requireNonNull(moveResult));
+
+        assertEquals(2, gameBoard.getNumGems());
+        assertEquals(1, gameBoard.getNumCells(BoardLayers.EXTRA_LIFE));
+        assertEquals(1, gameBoard.getNumCells(BoardLayers.PLAYER));
+        assertEquals(0, gameBoard.getNumCollectedGems(playerId));
+        assertEquals(0, gameBoard.getNumCollectedExtraLives(playerId));
+    }
+
+    // P.*P
+    @Test
+    @Tag("sanity")
+    @DisplayName("Counters - Kick Out")
+    void testCountersKickOut() {
+        gameBoard = GameBoardUtils.createGameBoard(1, 4, (pos) -> {
+            if (pos.col() == 0 || pos.col() == 3) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == 2) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        controller = new GameBoardController(gameBoard);
+        final var player = gameBoard.getPlayers().get(0);
+
+        assumeTrue(gameBoard.getNumCells(BoardLayers.PLAYER) == 2);
+
+        controller.kickOut(player.getId());
+
+        assertNull(player.getOwner());
+        assertNull(gameBoard.getEntityCell(0, 0).getEntity());
+        assertEquals(1, gameBoard.getNumCells(BoardLayers.PLAYER));
+        assertEquals(1, gameBoard.getNumGems());
+    }
+
+    // P*LS
+    // .WM.
+    @Test
+    @Tag("sanity")
+    @DisplayName("Probe Move - Same Results as Try Move")
+    void testProbeMove() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 4, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (pos.equals(new Position(0, 3))) {
+                return new StopCell(pos);
+            } else if (pos.equals(new Position(1, 1))) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(1, 2))) {
+                return new EntityCell(pos, new Mine());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var playerId = gameBoard.getPlayer().getId();
+
+        final var stepwise = new GameBoardController(gameBoard);
+        final var tabled = new GameBoardController(gameBoard, new SlideTable(gameBoard));
+        for (final var probed : new GameBoardController[]{stepwise, tabled}) {
+            for (int r = 0; r < gameBoard.getNumRows(); ++r) {
+                for (int c = 0; c < gameBoard.getNumCols(); ++c) {
+                    if (gameBoard.getCell(r, c) instanceof Wall) {
+                        continue;
+                    }
+                    for (final var direction : Direction.values()) {
+                        final var pos = new Position(r, c);
+                        final var result = probed.tryMove(pos, direction, playerId);
+                        final var code = probed.probeMove(pos, direction, playerId);
+
+                        if (result instanceof MoveResult.Valid.Alive alive) {
+                            assertEquals(MoveProbe.ALIVE, MoveProbe.kindOf(code));
+                            assertEquals(gameBoard.indexOf(alive.newPosition), MoveProbe.indexOf(code));
+                            assertEquals(alive.collectedGems.size(), MoveProbe.numGemsOf(code));
+                            assertEquals(alive.collectedExtraLives.size(), MoveProbe.numExtraLivesOf(code));
+                        } else if (result instanceof MoveResult.Valid.Dead dead) {
+                            assertEquals(MoveProbe.DEAD, MoveProbe.kindOf(code));
+                            assertEquals(gameBoard.indexOf(dead.minePosition), MoveProbe.indexOf(code));
+                        } else {
+                            assertEquals(MoveProbe.INVALID, MoveProbe.kindOf(code));
+                            assertEquals(gameBoard.indexOf(pos), MoveProbe.indexOf(code));
+                        }
+                    }
+                }
+            }
+        }
+
+        // Probing does not change the game board
+        assertEquals(new Position(0, 0), gameBoard.getPlayer().getOwner().getPosition());
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(1, gameBoard.getNumCells(BoardLayers.EXTRA_LIFE));
+    }
+
     @AfterEach
     void tearDown() {
         controller = null;
@@ -12,7 +12,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -1048,6 +1052,136 @@ public class GameControllerTest {
         assertEquals(0, gameState.getNumDeaths());
     }
 
+    @Test
+    @Tag("sanity")
+    @DisplayName("Process Move - Concurrent Moves by Multiple Players")
+    void testConcurrentProcessMove() throws InterruptedException {
+        gameBoard = SlideTableTest.createRandomGameBoard(new Random(1), 8, 9);
+        final var gameStates = gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player))
+                .toArray(GameState[]::new);
+        controller = new GameController(gameStates);
+
+        final var initialNumGems = gameBoard.getNumGems();
+        final var numValidMoves = new AtomicIntegerArray(gameStates.length);
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < gameStates.length; ++i) {
+            final var index = i;
+            final var playerId = gameStates[i].getPlayer().getId();
+            threads.add(new Thread(() -> {
+                final var random = new Random(index);
+                for (int j = 0; j < 2000; ++j) {
+                    final var direction = Direction.values()[random.nextInt(Direction.values().length)];
+                    if (controller.processMove(direction, playerId) instanceof MoveResult.Valid) {
+                        numValidMoves.incrementAndGet(index);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final var thread : threads) {
+            thread.join();
+        }
+
+        var numGotGems = 0;
+        for (int i = 0; i < gameStates.length; ++i) {
+            assertEquals(numValidMoves.get(i), gameStates[i].getNumMoves());
+            numGotGems += gameStates[i].getNumGotGems();
+        }
+        assertEquals(initialNumGems, numGotGems + gameStates[0].getNumGems());
+    }
+
+    // P.G.G
+    @Test
+    @Tag("sanity")
+    @DisplayName("Get Winners - Single Player")
+    void testGetWinnersSinglePlayer() {
+        gameBoard = GameBoardUtils.createGameBoard(1, 5, (pos) -> {
+            if (pos.col() == 0) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == 2 || pos.col() == 4) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        gameState = new GameState(gameBoard);
+        controller = new GameController(gameState);
+
+        assertNull(controller.getWinners());
+
+        controller.processMove(Direction.RIGHT);
+
+        assertArrayEquals(new Player[]{gameState.getPlayer()}, controller.getWinners());
+    }
+
+    // PM..
+    // ...G
+    @Test
+    @Tag("sanity")
+    @DisplayName("Get Winners - All Players Lose")
+    void testGetWinnersAllPlayersLose() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 4, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1))) {
+                return new EntityCell(pos, new Mine());
+            } else if (pos.equals(new Position(1, 3))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        gameState = new GameState(gameBoard, 1);
+        controller = new GameController(gameState);
+
+        controller.processMove(Direction.RIGHT);
+
+        assertArrayEquals(new Player[0], controller.getWinners());
+    }
+
+    // P.G
+    // ...
+    // P.G
+    @ParameterizedTest
+    @Tag("sanity")
+    @ValueSource(booleans = {true, false})
+    @DisplayName("Get Winners - Highest Scores among Alive Players")
+    void testGetWinnersMultiplayer(final boolean isTie) {
+        gameBoard = GameBoardUtils.createGameBoard(3, 3, (pos) -> {
+            if (pos.equals(new Position(0, 0)) || pos.equals(new Position(2, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2)) || pos.equals(new Position(2, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var top = gameBoard.getEntityCell(0, 0).getEntity();
+        final var bottom = gameBoard.getEntityCell(2, 0).getEntity();
+        assumeTrue(top instanceof Player && bottom instanceof Player);
+        controller = new GameController(
+                new GameState(gameBoard, (Player) top),
+                new GameState(gameBoard, (Player) bottom)
+        );
+
+        if (!isTie) {
+            controller.processMove(Direction.DOWN, ((Player) top).getId());
+            controller.processMove(Direction.UP, ((Player) top).getId());
+        }
+        controller.processMove(Direction.RIGHT, ((Player) top).getId());
+        assertNull(controller.getWinners());
+
+        controller.processMove(Direction.RIGHT, ((Player) bottom).getId());
+        final var winners = controller.getWinners();
+        assertNotNull(winners);
+        if (isTie) {
+            assertEquals(Set.of(top, bottom), Set.of(winners));
+        } else {
+            assertArrayEquals(new Player[]{(Player) bottom}, winners);
+        }
+    }
+
     @AfterEach
     void tearDown() {
         controller = null;
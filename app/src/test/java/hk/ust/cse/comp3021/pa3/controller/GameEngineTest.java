@@ -0,0 +1,136 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEngineTest {
+
+    private GameEngine engine = null;
+
+    private static GameController createGameController(final long seed) {
+        final var gameBoard = SlideTableTest.createRandomGameBoard(new Random(seed), 8, 9);
+        return new GameController(gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player))
+                .toArray(GameState[]::new));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Game Engine - Concurrent Submissions are Logged and Replayable")
+    void testConcurrentSubmissions() throws Exception {
+        final var gameController = createGameController(1);
+        final var players = gameController.getGameBoard().getPlayers();
+        final var moves = new ArrayList<GameEngine.Move>();
+        final var results = new ArrayList<MoveResult>();
+        engine = new GameEngine(gameController, (move, result) -> {
+            moves.add(move);
+            results.add(result);
+        });
+
+        final var futures = new ArrayList<CompletableFuture<MoveResult>>();
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; ++i) {
+            final var random = new Random(i);
+            final var processor = engine.processorOf(players.get(i % players.size()).getId());
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 500; ++j) {
+                    processor.move(Direction.values()[random.nextInt(Direction.values().length)]);
+                }
+            }));
+        }
+        for (int i = 0; i < 100; ++i) {
+            futures.add(engine.submit(Direction.values()[i % Direction.values().length], players.get(0).getId()));
+        }
+        threads.forEach(Thread::start);
+        for (final var thread : threads) {
+            thread.join();
+        }
+        // All moves submitted by the threads are queued before this one
+        futures.add(engine.submit(Direction.UP, players.get(0).getId()));
+        for (final var future : futures) {
+            assertNotNull(future.get());
+        }
+        engine.close();
+
+        assertEquals(2101, moves.size());
+        for (int i = 0; i < moves.size(); ++i) {
+            assertEquals(i, moves.get(i).sequence());
+        }
+
+        // Replay the moves in the logged order on an identical game board
+        final var replayController = createGameController(1);
+        final var replayPlayers = replayController.getGameBoard().getPlayers();
+        for (int i = 0; i < moves.size(); ++i) {
+            final var move = moves.get(i);
+            final var playerIndex = players.indexOf(gameController.getGameState(move.playerID()).getPlayer());
+            final var result = replayController.processMove(
+                    move.direction(),
+                    replayPlayers.get(playerIndex).getId()
+            );
+            SlideTableTest.assertSameResult(results.get(i), result);
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Game Engine - Submissions after Close are Cancelled")
+    void testSubmitAfterClose() {
+        final var gameController = createGameController(2);
+        final var playerId = gameController.getGameBoard().getPlayers().get(0).getId();
+        engine = new GameEngine(gameController);
+
+        engine.close();
+
+        assertTrue(engine.submit(Direction.UP, playerId).isCancelled());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Game Engine - Failing Listener")
+    void testFailingListener() {
+        final var gameController = createGameController(3);
+        final var playerId = gameController.getGameBoard().getPlayers().get(0).getId();
+        engine = new GameEngine(gameController, (move, result) -> {
+            if (move.sequence() == 1) {
+                throw new IllegalStateException();
+            } else if (move.sequence() == 3) {
+                throw new AssertionError();
+            }
+        });
+
+        final var futures = new ArrayList<CompletableFuture<MoveResult>>();
+        for (int i = 0; i < 10; ++i) {
+            futures.add(engine.submit(Direction.values()[i % Direction.values().length], playerId));
+        }
+        for (final var future : futures) {
+            assertDoesNotThrow(() -> future.handle((result, error) -> null).get());
+        }
+
+        // An exception only fails its own move, but an error stops the engine and fails all queued moves
+        assertFalse(futures.get(0).isCompletedExceptionally());
+        assertTrue(futures.get(1).isCompletedExceptionally());
+        assertFalse(futures.get(2).isCompletedExceptionally());
+        for (final var future : futures.subList(3, futures.size())) {
+            assertTrue(future.isCompletedExceptionally());
+        }
+        assertFalse(engine.isRunning());
+        assertTrue(engine.submit(Direction.UP, playerId).isCancelled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+        engine = null;
+    }
+}
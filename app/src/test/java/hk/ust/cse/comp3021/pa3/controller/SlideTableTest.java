@@ -0,0 +1,159 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlideTableTest {
+
+    private GameBoard gameBoard = null;
+    private SlideTable slideTable = null;
+
+    // P.S.W
+    // .....
+    @Test
+    @Tag("sanity")
+    @DisplayName("Slide Table - Ends and Entities")
+    void testEndsAndEntities() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 5, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new StopCell(pos);
+            } else if (pos.equals(new Position(0, 4))) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(1, 3))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        slideTable = new SlideTable(gameBoard);
+        final var layers = gameBoard.getLayers();
+
+        assertEquals(layers.indexOf(0, 2), slideTable.getEnd(layers.indexOf(0, 0), Direction.RIGHT));
+        assertEquals(layers.indexOf(0, 3), slideTable.getEnd(layers.indexOf(0, 2), Direction.RIGHT));
+        assertEquals(layers.indexOf(0, 0), slideTable.getEnd(layers.indexOf(0, 0), Direction.UP));
+        assertEquals(layers.indexOf(1, 4), slideTable.getEnd(layers.indexOf(1, 0), Direction.RIGHT));
+        assertEquals(layers.indexOf(1, 3), slideTable.getNextEntity(layers.indexOf(1, 0), Direction.RIGHT));
+        assertEquals(SlideTable.NONE, slideTable.getNextEntity(layers.indexOf(1, 4), Direction.RIGHT));
+
+        gameBoard.getEntityCell(1, 1).setEntity(new Mine());
+        assertEquals(layers.indexOf(1, 1), slideTable.getNextEntity(layers.indexOf(1, 0), Direction.RIGHT));
+        assertEquals(layers.indexOf(1, 1), slideTable.getNextEntity(layers.indexOf(1, 2), Direction.LEFT));
+
+        gameBoard.getEntityCell(1, 1).setEntity(null);
+        assertEquals(layers.indexOf(1, 3), slideTable.getNextEntity(layers.indexOf(1, 0), Direction.RIGHT));
+        assertEquals(SlideTable.NONE, slideTable.getNextEntity(layers.indexOf(1, 2), Direction.LEFT));
+    }
+
+    @ParameterizedTest
+    @Tag("sanity")
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    @DisplayName("Slide Table - Same Results as Stepwise Moves")
+    void testSameResultsAsStepwise(final long seed) {
+        final var random = new Random(seed);
+        gameBoard = createRandomGameBoard(random, 8, 9);
+        slideTable = new SlideTable(gameBoard);
+
+        final var stepwise = new GameBoardController(gameBoard);
+        final var tabled = new GameBoardController(gameBoard, slideTable);
+        final var players = gameBoard.getPlayers();
+
+        for (int i = 0; i < 50; ++i) {
+            assertSameResults(stepwise, tabled, players);
+
+            final var player = players.get(random.nextInt(players.size()));
+            tabled.makeMove(Direction.values()[random.nextInt(Direction.values().length)], player.getId());
+        }
+    }
+
+    private void assertSameResults(GameBoardController expected, GameBoardController actual, List<Player> players) {
+        for (int r = 0; r < gameBoard.getNumRows(); ++r) {
+            for (int c = 0; c < gameBoard.getNumCols(); ++c) {
+                if (gameBoard.getCell(r, c) instanceof Wall) {
+                    continue;
+                }
+                for (final var player : players) {
+                    for (final var direction : Direction.values()) {
+                        final var pos = new Position(r, c);
+                        assertSameResult(
+                                expected.tryMove(pos, direction, player.getId()),
+                                actual.tryMove(pos, direction, player.getId())
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    static void assertSameResult(MoveResult expected, MoveResult actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.newPosition, actual.newPosition);
+        if (expected instanceof MoveResult.Valid.Alive e && actual instanceof MoveResult.Valid.Alive a) {
+            assertEquals(e.origPosition, a.origPosition);
+            assertEquals(e.collectedGems, a.collectedGems);
+            assertEquals(e.collectedExtraLives, a.collectedExtraLives);
+        } else if (expected instanceof MoveResult.Valid.Dead e && actual instanceof MoveResult.Valid.Dead a) {
+            assertEquals(e.minePosition, a.minePosition);
+        }
+    }
+
+    static GameBoard createRandomGameBoard(Random random, int rows, int cols) {
+        // Walls and stop cells are only placed inside the border, so that the gem at the top-right corner can always be
+        // reached by both players
+        final var gameBoard = GameBoardUtils.createGameBoard(rows, cols, (pos) -> {
+            final var isBorder = pos.row() == 0 || pos.col() == 0 || pos.row() == rows - 1 || pos.col() == cols - 1;
+            final var roll = random.nextInt(10);
+            if (pos.equals(new Position(0, 0)) || pos.equals(new Position(rows - 1, cols - 1))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, cols - 1))) {
+                return new EntityCell(pos, new Gem());
+            } else if (!isBorder && roll < 2) {
+                return new Wall(pos);
+            } else if (!isBorder && roll < 3) {
+                return new StopCell(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                if (!(gameBoard.getCell(r, c) instanceof EntityCell cell) || cell instanceof StopCell
+                        || cell.getEntity() != null) {
+                    continue;
+                }
+                final var roll = random.nextInt(10);
+                if (roll < 1) {
+                    cell.setEntity(new Mine());
+                } else if (roll < 2) {
+                    cell.setEntity(new ExtraLife());
+                } else if (roll < 5) {
+                    cell.setEntity(new Gem());
+                }
+            }
+        }
+
+        return gameBoard;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (slideTable != null) {
+            slideTable.detach();
+        }
+        slideTable = null;
+        gameBoard = null;
+    }
+}
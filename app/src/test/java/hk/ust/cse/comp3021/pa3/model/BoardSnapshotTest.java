@@ -0,0 +1,113 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardSnapshotTest {
+
+    private static final int NUM_ROWS = 1100;
+
+    /**
+     * Creates a tall game board spanning three chunks, with the player at the top-left corner, a gem to its right, an
+     * extra life and a gem down its column, and a mine at the bottom-right corner.
+     */
+    private static GameBoard createGameBoard() {
+        final var flags = new byte[NUM_ROWS * 2];
+        flags[0] = BoardLayers.STOP | BoardLayers.PLAYER;
+        flags[1] = BoardLayers.GEM;
+        flags[600 * 2] = BoardLayers.EXTRA_LIFE;
+        flags[(NUM_ROWS - 1) * 2] = BoardLayers.GEM;
+        flags[(NUM_ROWS - 1) * 2 + 1] = BoardLayers.MINE;
+        return new GameBoard(new BoardLayers(NUM_ROWS, 2, flags));
+    }
+
+    private static void assertSameLayers(final GameBoard expected, final BoardSnapshot actual) {
+        final var layers = expected.getLayers();
+        for (int i = 0; i < layers.size(); ++i) {
+            assertEquals(layers.get(i), actual.get(i));
+        }
+        assertEquals(layers.get(NUM_ROWS - 1, 1), actual.get(NUM_ROWS - 1, 1));
+        assertEquals(expected.getNumGems(), actual.getNumGems());
+        assertEquals(expected.getZobristHash(), actual.getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Board Snapshot - Moves Copy Only Changed Chunks")
+    void testMove() {
+        final var gameBoard = createGameBoard();
+        final var snapshot = gameBoard.snapshot();
+        assertSameLayers(gameBoard, snapshot);
+        assertSame(snapshot, gameBoard.snapshot());
+
+        final var right = snapshot.move(0, Direction.RIGHT);
+        assertNotNull(right);
+        assertEquals(1, right.getPlayerIndex(0));
+        assertEquals(1, right.getNumGems());
+        assertNotSame(snapshot.getChunk(0), right.getChunk(0));
+        assertSame(snapshot.getChunk(1), right.getChunk(1));
+        assertSame(snapshot.getChunk(2), right.getChunk(2));
+
+        // The original snapshot and the game board are untouched
+        assertSameLayers(gameBoard, snapshot);
+        assertEquals(0, snapshot.getPlayerIndex(0));
+
+        // Moves can be chained, and invalid or deadly moves yield null
+        final var down = snapshot.move(0, Direction.DOWN);
+        assertNotNull(down);
+        assertEquals((NUM_ROWS - 1) * 2, down.getPlayerIndex(0));
+        assertEquals(0, down.get(600, 0));
+        assertNull(down.move(0, Direction.RIGHT));
+        assertNull(down.move(0, Direction.DOWN));
+        assertNull(snapshot.move(0, Direction.UP));
+        assertNotNull(down.move(0, Direction.UP));
+
+        // Making the same move on the game board gives the same state
+        new GameBoardController(gameBoard).makeMove(Direction.RIGHT, gameBoard.getPlayer().getId());
+        final var afterMove = gameBoard.snapshot();
+        assertSameLayers(gameBoard, afterMove);
+        assertEquals(right.getZobristHash(), afterMove.getZobristHash());
+        assertSame(snapshot.getChunk(1), afterMove.getChunk(1));
+        assertSame(snapshot.getChunk(2), afterMove.getChunk(2));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Board Snapshot - Moves Copy Only Changed Blocks")
+    void testBlocks() {
+        // A single column spanning three blocks, with the player at the top, a gem below it, and a stop cell below it
+        final var numRows = (2 * BoardSnapshot.CHUNKS_PER_BLOCK + 1) * BoardSnapshot.CHUNK_CELLS;
+        final var flags = new byte[numRows];
+        flags[0] = BoardLayers.STOP | BoardLayers.PLAYER;
+        flags[1] = BoardLayers.GEM;
+        flags[2] = BoardLayers.STOP;
+        final var gameBoard = new GameBoard(new BoardLayers(numRows, 1, flags));
+        final var snapshot = gameBoard.snapshot();
+
+        final var down = snapshot.move(0, Direction.DOWN);
+        assertNotNull(down);
+        assertEquals(2, down.getPlayerIndex(0));
+        assertEquals(0, down.getNumGems());
+        assertNotSame(snapshot.getBlock(0), down.getBlock(0));
+        assertSame(snapshot.getChunk(1), down.getChunk(1));
+        assertSame(snapshot.getBlock(1), down.getBlock(1));
+        assertSame(snapshot.getBlock(2), down.getBlock(2));
+        assertEquals(BoardLayers.PLAYER | BoardLayers.STOP, down.get(2));
+        assertEquals(BoardLayers.STOP | BoardLayers.PLAYER, snapshot.get(0));
+
+        // Taking a snapshot after the same move on the game board also reuses the unchanged blocks
+        new GameBoardController(gameBoard).makeMove(Direction.DOWN, gameBoard.getPlayer().getId());
+        final var afterMove = gameBoard.snapshot();
+        assertEquals(down.getZobristHash(), afterMove.getZobristHash());
+        assertSame(snapshot.getChunk(1), afterMove.getChunk(1));
+        assertSame(snapshot.getBlock(1), afterMove.getBlock(1));
+        assertSame(snapshot.getBlock(2), afterMove.getBlock(2));
+        for (int i = 0; i < numRows; ++i) {
+            assertEquals(down.get(i), afterMove.get(i));
+        }
+    }
+}
@@ -486,6 +486,244 @@ public class GameBoardTest {
         assertEquals(7, gameBoard.getNumGems());
     }
 
+    // PW.
+    // .*#
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - From Layers")
+    void testGameBoardCreationFromLayers() {
+        final var layers = new BoardLayers(2, 3, new byte[]{
+                BoardLayers.PLAYER | BoardLayers.STOP, BoardLayers.WALL, 0,
+                0, BoardLayers.GEM, BoardLayers.STOP
+        });
+
+        assertDoesNotThrow(() -> gameBoard = new GameBoard(layers));
+        assertTrue(gameBoard.getCell(0, 0) instanceof StopCell);
+        assertTrue(gameBoard.getEntityCell(0, 0).getEntity() instanceof Player);
+        assertTrue(gameBoard.getCell(0, 1) instanceof Wall);
+        assertTrue(gameBoard.getEntityCell(1, 1).getEntity() instanceof Gem);
+        assertTrue(gameBoard.getCell(1, 2) instanceof StopCell);
+        assertSame(gameBoard.getCell(1, 1), gameBoard.getCell(new Position(1, 1)));
+        assertEquals(new Position(1, 1), gameBoard.getCell(1, 1).getPosition());
+        assertEquals(gameBoard.getEntityCell(0, 0), gameBoard.getPlayer().getOwner());
+        assertEquals(1, gameBoard.getNumGems());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Invalid Layers")
+    void testGameBoardCreationFromInvalidLayers() {
+        final var layers = new BoardLayers(1, 3, new byte[]{
+                BoardLayers.PLAYER, BoardLayers.WALL | BoardLayers.GEM, BoardLayers.GEM
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(layers));
+    }
+
+    // P.*
+    // ...
+    // ...
+    @Test
+    @Tag("sanity")
+    @DisplayName("Layers - Updated by Entity Changes")
+    void testLayersUpdatedBySetEntity() {
+        final var rows = 3;
+        final var cols = 3;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, EntityCell::new);
+
+        final var player = new Player();
+        ((EntityCell) cells[0][0]).setEntity(player);
+        ((EntityCell) cells[0][2]).setEntity(new Gem());
+
+        gameBoard = new GameBoard(rows, cols, cells);
+        final var layers = gameBoard.getLayers();
+
+        assertEquals(BoardLayers.PLAYER, layers.get(0, 0));
+        assertEquals(BoardLayers.GEM, layers.get(0, 2));
+
+        gameBoard.getEntityCell(2, 2).setEntity(player);
+        gameBoard.getEntityCell(0, 2).setEntity(new Mine());
+
+        assertEquals(0, layers.get(0, 0));
+        assertEquals(BoardLayers.PLAYER, layers.get(2, 2));
+        assertEquals(BoardLayers.MINE, layers.get(0, 2));
+        assertEquals(0, gameBoard.getNumGems());
+    }
+
+    // P..#.
+    // WWW.W
+    // ..*..
+    // WWWWW
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Gem Reachable through Stop Cell")
+    void testGameBoardCreationReachableThroughStopCell() {
+        final var rows = 4;
+        final var cols = 5;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, (pos) -> {
+            if (pos.row() == 3 || (pos.row() == 1 && pos.col() != 3)) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(0, 3))) {
+                return new StopCell(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        ((EntityCell) cells[0][0]).setEntity(new Player());
+        ((EntityCell) cells[2][2]).setEntity(new Gem());
+
+        assertDoesNotThrow(() -> gameBoard = new GameBoard(rows, cols, cells));
+
+        cells[0][3] = new EntityCell(new Position(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(rows, cols, cells));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Large Game Board")
+    void testLargeGameBoardCreation() {
+        final var rows = 500;
+        final var cols = 500;
+        final var layers = new byte[rows * cols];
+        for (int r = 1; r < rows; r += 2) {
+            for (int c = 0; c < cols; ++c) {
+                layers[r * cols + c] = c == (r % 4 == 1 ? cols - 1 : 0) ? 0 : BoardLayers.WALL;
+            }
+        }
+        layers[0] = BoardLayers.PLAYER;
+        layers[rows * cols - 1] = BoardLayers.GEM;
+
+        assertDoesNotThrow(() -> gameBoard = new GameBoard(new BoardLayers(rows, cols, layers)));
+        assertEquals(1, gameBoard.getNumGems());
+    }
+
+    // P.W
+    // ..G
+    @Test
+    @Tag("sanity")
+    @DisplayName("Positions - Interned")
+    void testInternedPositions() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 3, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(1, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        for (int r = 0; r < gameBoard.getNumRows(); ++r) {
+            for (int c = 0; c < gameBoard.getNumCols(); ++c) {
+                final var position = new Position(r, c);
+                final var index = gameBoard.indexOf(position);
+
+                assertEquals(position, gameBoard.getPosition(index));
+                assertSame(gameBoard.getPosition(index), gameBoard.getPosition(index));
+                assertSame(gameBoard.getCell(r, c), gameBoard.getCell(index));
+            }
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> gameBoard.getPosition(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> gameBoard.indexOf(new Position(2, 0)));
+        assertSame(Direction.LEFT.getOffset(), Direction.LEFT.getOffset());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Cells and Positions - Not Stored per Cell")
+    void testLargeBoardCaches() {
+        final var rows = 1000;
+        final var cols = 1000;
+        final var layers = new byte[rows * cols];
+        layers[0] = BoardLayers.PLAYER;
+        layers[1] = BoardLayers.GEM;
+        gameBoard = new GameBoard(new BoardLayers(rows, cols, layers));
+        assertTrue(rows * cols > GameBoard.POSITION_CACHE_SIZE);
+
+        // Positions sharing a slot of the cache are still correct
+        final var index = rows * cols - 1;
+        final var otherIndex = index - GameBoard.POSITION_CACHE_SIZE;
+        assertEquals(new Position(rows - 1, cols - 1), gameBoard.getPosition(index));
+        assertEquals(gameBoard.getPosition(otherIndex), new Position(otherIndex / cols, otherIndex % cols));
+        assertEquals(new Position(rows - 1, cols - 1), gameBoard.getPosition(index));
+
+        // Cells in use keep their identity, and changes to them are reflected in the layers
+        final var gemCell = gameBoard.getEntityCell(0, 1);
+        final var player = gameBoard.getPlayer();
+        System.gc();
+        assertSame(gemCell, gameBoard.getCell(0, 1));
+        assertSame(player.getOwner(), gameBoard.getCell(0, 0));
+        gemCell.setEntity(new Mine());
+        assertEquals(0, gameBoard.getNumGems());
+        assertEquals(BoardLayers.MINE, gameBoard.getLayers().get(1));
+        assertTrue(gameBoard.getEntityCell(0, 1).getEntity() instanceof Mine);
+    }
+
+    // P.P
+    // L.G
+    private static GameBoard createMultiplayerGameBoard() {
+        return GameBoardUtils.createGameBoard(2, 3, (pos) -> {
+            if (pos.equals(new Position(0, 0)) || pos.equals(new Position(0, 2))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(1, 0))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (pos.equals(new Position(1, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Zobrist Hash - Incremental and Stable")
+    void testZobristHash() {
+        gameBoard = createMultiplayerGameBoard();
+        final var initialHash = gameBoard.getZobristHash();
+        assertEquals(initialHash, createMultiplayerGameBoard().getZobristHash());
+
+        final var player1 = gameBoard.getPlayers().get(0);
+        final var player2 = gameBoard.getPlayers().get(1);
+
+        // Collecting and restoring an entity
+        final var extraLife = gameBoard.getEntityCell(1, 0).setEntity(null);
+        assertNotEquals(initialHash, gameBoard.getZobristHash());
+        gameBoard.getEntityCell(1, 0).setEntity(extraLife);
+        assertEquals(initialHash, gameBoard.getZobristHash());
+
+        // Moving a player and moving it back
+        gameBoard.getEntityCell(0, 1).setEntity(player1);
+        final var movedHash = gameBoard.getZobristHash();
+        assertNotEquals(initialHash, movedHash);
+        gameBoard.getEntityCell(0, 0).setEntity(player1);
+        assertEquals(initialHash, gameBoard.getZobristHash());
+
+        // Swapping the players changes the hash, although the layers are the same
+        gameBoard.getEntityCell(0, 1).setEntity(player1);
+        gameBoard.getEntityCell(0, 0).setEntity(player2);
+        gameBoard.getEntityCell(0, 2).setEntity(player1);
+        assertNotEquals(initialHash, gameBoard.getZobristHash());
+
+        // The maintained hash matches the hash of a new game board with the same layers, and players in the same order
+        gameBoard.getEntityCell(1, 2).setEntity(null);
+        gameBoard.getEntityCell(0, 1).setEntity(player1);
+        gameBoard.getEntityCell(0, 2).setEntity(player2);
+        final var layers = gameBoard.getLayers();
+        final var flags = new byte[layers.size()];
+        for (int i = 0; i < flags.length; ++i) {
+            flags[i] = layers.get(i);
+        }
+        flags[layers.indexOf(0, 0)] = BoardLayers.GEM;
+        gameBoard.getEntityCell(0, 0).setEntity(new Gem());
+        assertEquals(gameBoard.getZobristHash(),
+                new GameBoard(new BoardLayers(layers.getNumRows(), layers.getNumCols(), flags)).getZobristHash());
+    }
+
     @AfterEach
     void tearDown() {
         gameBoard = null;
@@ -1,5 +1,7 @@
 package hk.ust.cse.comp3021.pa3.model;
 
+import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa3.controller.GameController;
 import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
 import hk.ust.cse.comp3021.pa3.util.ReflectionUtils;
 import org.hamcrest.Matchers;
@@ -617,6 +619,92 @@ public class GameStateTest {
         assertEquals(96, gameState.getScore());
     }
 
+    // P.G.P
+    @Test
+    @Tag("sanity")
+    @DisplayName("Game Board Controller - Slide Table Shared on Request")
+    void testSharedGameBoardController() {
+        gameBoard = GameBoardUtils.createGameBoard(1, 5, (pos) -> {
+            if (pos.col() == 0 || pos.col() == 4) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == 2) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        final var players = gameBoard.getPlayers();
+        gameState = new GameState(gameBoard, players.get(0));
+        final var otherGameState = new GameState(gameBoard, players.get(1));
+
+        final var controller = gameState.getGameBoardController();
+        assertSame(controller, gameState.getGameBoardController());
+        assertSame(gameBoard, controller.getGameBoard());
+
+        // A slide table is only attached on request, and then shared by all game states
+        final var gameController = new GameController(gameState, otherGameState);
+        gameController.useSlideTable();
+        final var tabled = gameState.getGameBoardController();
+        assertNotSame(controller, tabled);
+        assertSame(tabled, otherGameState.getGameBoardController());
+        final var moveResult = gameController.processMove(Direction.RIGHT, players.get(0).getId());
+        assertTrue(moveResult instanceof MoveResult.Valid.Alive);
+        assertEquals(0, gameBoard.getNumGems());
+
+        final var otherBoard = GameBoardUtils.createGameBoard(1, 2,
+                (pos) -> new EntityCell(pos, pos.col() == 0 ? new Player() : new Gem()));
+        assertThrows(IllegalArgumentException.class,
+                () -> gameState.setGameBoardController(new GameBoardController(otherBoard)));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Zobrist Hash - Same State through Different Moves")
+    void testZobristHash() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 2, (pos) -> {
+            final Entity entity;
+            if (pos.equals(new Position(0, 0))) {
+                entity = new Player();
+            } else if (pos.equals(new Position(1, 1))) {
+                entity = new Gem();
+            } else {
+                entity = null;
+            }
+
+            return new EntityCell(pos, entity);
+        });
+        gameState = new GameState(gameBoard, 3);
+        final var controller = gameState.getGameBoardController();
+
+        controller.makeMove(Direction.RIGHT);
+        controller.makeMove(Direction.DOWN);
+        final var viaRight = gameState.getZobristHash();
+        controller.undoMove((MoveResult.Valid.Alive) controller.makeMove(Direction.UP));
+        assertEquals(viaRight, gameState.getZobristHash());
+
+        final var otherBoard = GameBoardUtils.createGameBoard(2, 2, (pos) -> {
+            final Entity entity;
+            if (pos.equals(new Position(0, 0))) {
+                entity = new Player();
+            } else if (pos.equals(new Position(1, 1))) {
+                entity = new Gem();
+            } else {
+                entity = null;
+            }
+
+            return new EntityCell(pos, entity);
+        });
+        final var otherState = new GameState(otherBoard, 3);
+        otherState.getGameBoardController().makeMove(Direction.DOWN);
+        otherState.getGameBoardController().makeMove(Direction.RIGHT);
+        assertEquals(viaRight, otherState.getZobristHash());
+        assertEquals(gameBoard.getZobristHash(), otherBoard.getZobristHash());
+
+        otherState.decrementNumLives();
+        assertNotEquals(viaRight, otherState.getZobristHash());
+    }
+
     @AfterEach
     void tearDown() {
         gameState = null;
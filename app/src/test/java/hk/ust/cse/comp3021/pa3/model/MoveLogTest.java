@@ -0,0 +1,175 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveLogTest {
+
+    /**
+     * Creates a walk of moves across a large board, some of which collect gems and extra lives.
+     */
+    private static List<MoveResult.Valid.Alive> createMoves(final int numMoves) {
+        final var moves = new ArrayList<MoveResult.Valid.Alive>(numMoves);
+        var position = new Position(0, 0);
+        for (int i = 0; i < numMoves; ++i) {
+            final var next = i % 2 == 0
+                    ? new Position(position.row(), (position.col() + 1 + i % 300) % 1000)
+                    : new Position((position.row() + 7) % 1000, position.col());
+            final var gems = i % 3 == 0 ? List.of(next) : List.<Position>of();
+            final var extraLives = i % 5 == 0 ? List.of(position, next) : List.<Position>of();
+            moves.add(new MoveResult.Valid.Alive(next, position, gems, extraLives));
+            position = next;
+        }
+        return moves;
+    }
+
+    /**
+     * @return A copy of a move which also collects many gems, so that its record is longer than 128 bytes.
+     */
+    private static MoveResult.Valid.Alive withGems(final MoveResult.Valid.Alive move, final int numGems) {
+        final var gems = new ArrayList<Position>(numGems);
+        for (int i = 0; i < numGems; ++i) {
+            gems.add(new Position(i % 1000, (i * 7) % 1000));
+        }
+        return new MoveResult.Valid.Alive(move.newPosition, move.origPosition, gems, move.collectedExtraLives);
+    }
+
+    private static void assertSameMove(final MoveResult.Valid.Alive expected, final MoveResult.Valid.Alive actual) {
+        assertEquals(expected.newPosition, actual.newPosition);
+        assertEquals(expected.origPosition, actual.origPosition);
+        assertEquals(expected.collectedGems, actual.collectedGems);
+        assertEquals(expected.collectedExtraLives, actual.collectedExtraLives);
+    }
+
+    private static void assertPopsInReverse(final List<MoveResult.Valid.Alive> expected, final MoveLog moveLog) {
+        assertEquals(expected.size(), moveLog.size());
+        for (int i = expected.size() - 1; i >= 0; --i) {
+            assertSameMove(expected.get(i), moveLog.peek());
+            assertSameMove(expected.get(i), moveLog.pop());
+        }
+        assertTrue(moveLog.isEmpty());
+        assertThrows(NoSuchElementException.class, moveLog::pop);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Log - Round Trip across Chunks")
+    void testRoundTrip() {
+        final var moves = createMoves(5000);
+        final var moveLog = new MoveLog();
+        moves.forEach(moveLog::push);
+
+        final var decoded = moveLog.toList();
+        assertEquals(moves.size(), decoded.size());
+        for (int i = 0; i < moves.size(); ++i) {
+            assertSameMove(moves.get(i), decoded.get(i));
+        }
+
+        assertPopsInReverse(moves, moveLog);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Log - Records Longer than 128 Bytes")
+    void testLongRecords() {
+        final var moves = createMoves(MoveStack.RECENT_WINDOW_SIZE * 3);
+        // The lengths of these records are written in two and three 7-bit groups respectively
+        moves.set(50, withGems(moves.get(50), 60));
+        moves.set(100, withGems(moves.get(100), 6000));
+
+        final var moveLog = new MoveLog();
+        moves.forEach(moveLog::push);
+        final var decoded = moveLog.toList();
+        for (int i = 0; i < moves.size(); ++i) {
+            assertSameMove(moves.get(i), decoded.get(i));
+        }
+        assertPopsInReverse(moves, moveLog);
+
+        // Both moves are pushed into the older moves of the stack
+        final var moveStack = new MoveStack();
+        moves.forEach(moveStack::push);
+        for (int i = moves.size() - 1; i >= 0; --i) {
+            assertSameMove(moves.get(i), (MoveResult.Valid.Alive) moveStack.pop());
+        }
+        assertTrue(moveStack.isEmpty());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Log - Forks are Independent")
+    void testFork() {
+        final var moves = createMoves(3000);
+        final var moveLog = new MoveLog();
+        moves.subList(0, 2000).forEach(moveLog::push);
+
+        final var fork = moveLog.fork();
+        for (int i = 0; i < 500; ++i) {
+            fork.pop();
+        }
+        fork.push(new MoveResult.Valid.Alive(
+                new Position(1, 1), moves.get(1499).newPosition, List.of(), List.of()));
+        moves.subList(2000, 3000).forEach(moveLog::push);
+
+        assertPopsInReverse(moves, moveLog);
+        assertEquals(1501, fork.size());
+        assertEquals(new Position(1, 1), fork.pop().newPosition);
+        assertPopsInReverse(moves.subList(0, 1500), fork);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Log - Spill to Disk with Bounded Capacity and Close")
+    void testSpill() {
+        final var moves = createMoves(10000);
+        final var moveLog = new MoveLog(0);
+        moves.forEach(moveLog::push);
+        final var fork = moveLog.fork();
+
+        assertEquals(moves.size(), moveLog.toList().size());
+        assertPopsInReverse(moves, moveLog);
+        assertTrue(moveLog.isSpillFileOpen());
+
+        // The spill file is kept until the fork sharing it is also closed
+        moveLog.close();
+        moveLog.close();
+        assertTrue(fork.isSpillFileOpen());
+        assertPopsInReverse(moves, fork);
+        fork.close();
+        assertFalse(fork.isSpillFileOpen());
+
+        assertThrows(IllegalArgumentException.class, () -> new MoveLog(-1));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Stack - Moves beyond the Recent Window")
+    void testMoveStackBeyondRecentWindow() {
+        final var moves = createMoves(MoveStack.RECENT_WINDOW_SIZE * 3);
+        final var moveStack = new MoveStack();
+        moves.forEach(moveStack::push);
+
+        final var snapshot = moveStack.snapshot();
+        assertEquals(moves.size(), moveStack.asList().size());
+
+        // Recent moves are popped as the same instances
+        for (int i = moves.size() - 1; i >= 0; --i) {
+            final var popped = (MoveResult.Valid.Alive) moveStack.pop();
+            if (i >= moves.size() - MoveStack.RECENT_WINDOW_SIZE) {
+                assertSame(moves.get(i), popped);
+            } else {
+                assertSameMove(moves.get(i), popped);
+            }
+        }
+        assertTrue(moveStack.isEmpty());
+        assertEquals(moves.size(), moveStack.getPopCount());
+
+        assertPopsInReverse(moves, snapshot);
+    }
+}
@@ -0,0 +1,144 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGameStateSerializerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static GameState[] createGameStates(final int numLives, final String... rows) {
+        final var gameBoard = GameBoardUtils.createGameBoard(rows);
+        return gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player, numLives))
+                .toArray(GameState[]::new);
+    }
+
+    private static void assertSameGame(final GameState[] expected, final GameState[] actual) {
+        assertEquals(expected.length, actual.length);
+
+        final var expectedBoard = expected[0].getGameBoard();
+        final var actualBoard = actual[0].getGameBoard();
+        assertEquals(expectedBoard.getNumRows(), actualBoard.getNumRows());
+        assertEquals(expectedBoard.getNumCols(), actualBoard.getNumCols());
+        for (int i = 0; i < expectedBoard.getLayers().size(); ++i) {
+            assertEquals(expectedBoard.getLayers().get(i), actualBoard.getLayers().get(i));
+        }
+
+        for (int i = 0; i < expected.length; ++i) {
+            final var e = expected[i];
+            final var a = actual[i];
+            assertEquals(e.getPlayer().getOwner().getPosition(), a.getPlayer().getOwner().getPosition());
+            assertEquals(e.getNumLives(), a.getNumLives());
+            assertEquals(e.getNumMoves(), a.getNumMoves());
+            assertEquals(e.getNumDeaths(), a.getNumDeaths());
+            assertEquals(e.getNumGotGems(), a.getNumGotGems());
+            assertEquals(e.getMoveStack().getPopCount(), a.getMoveStack().getPopCount());
+            assertEquals(e.getScore(), a.getScore());
+            assertEquals(
+                    expectedBoard.getNumCollectedGems(e.getPlayer().getId()),
+                    actualBoard.getNumCollectedGems(a.getPlayer().getId())
+            );
+            assertEquals(
+                    expectedBoard.getNumCollectedExtraLives(e.getPlayer().getId()),
+                    actualBoard.getNumCollectedExtraLives(a.getPlayer().getId())
+            );
+
+            assertEquals(e.getStackedMoves().size(), a.getStackedMoves().size());
+            for (int j = 0; j < e.getStackedMoves().size(); ++j) {
+                final var em = (MoveResult.Valid.Alive) e.getStackedMoves().get(j);
+                final var am = (MoveResult.Valid.Alive) a.getStackedMoves().get(j);
+                assertEquals(em.newPosition, am.newPosition);
+                assertEquals(em.origPosition, am.origPosition);
+                assertEquals(em.collectedGems, am.collectedGems);
+                assertEquals(em.collectedExtraLives, am.collectedExtraLives);
+            }
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Binary Serialization - Round Trip with Statistics and Undo History")
+    void testRoundTrip() {
+        final var gameStates = createGameStates(3,
+                "P..G",
+                ".WL.",
+                "G.SG",
+                "MS.."
+        );
+        final var gameController = new GameController(gameStates);
+        final var playerId = gameStates[0].getPlayer().getId();
+        gameController.processMove(Direction.RIGHT, playerId);
+        gameController.processMove(Direction.DOWN, playerId);
+        gameController.processMove(Direction.LEFT, playerId);
+        gameController.processUndo();
+        gameController.processMove(Direction.LEFT, playerId);
+        gameController.processMove(Direction.UP, playerId);
+
+        final var loaded = BinaryGameStateSerializer.loadFrom(
+                ByteBuffer.wrap(BinaryGameStateSerializer.toByteArray(gameStates)));
+
+        assertSameGame(gameStates, loaded);
+
+        // The undo history is usable after loading
+        final var loadedController = new GameController(loaded);
+        while (!gameStates[0].getMoveStack().isEmpty()) {
+            gameController.processUndo();
+            loadedController.processUndo();
+            assertSameGame(gameStates, loaded);
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Binary Serialization - Multiplayer Round Trip through File")
+    void testMultiplayerRoundTrip() throws IOException {
+        final var gameStates = createGameStates(GameState.UNLIMITED_LIVES,
+                "P..G",
+                "..L.",
+                "G..P"
+        );
+        final var gameController = new GameController(gameStates);
+        gameController.processMove(Direction.RIGHT, gameStates[0].getPlayer().getId());
+        gameController.processMove(Direction.UP, gameStates[1].getPlayer().getId());
+
+        final var file = BinaryGameStateSerializer.writeTo(gameStates, tempDir.resolve("game.bin"));
+        final var loaded = BinaryGameStateSerializer.loadFrom(file);
+
+        assertSameGame(gameStates, loaded);
+        assertTrue(loaded[0].hasUnlimitedLives());
+        assertThrows(FileAlreadyExistsException.class, () -> BinaryGameStateSerializer.writeTo(gameStates, file));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Binary Serialization - Invalid Input")
+    void testInvalidInput() {
+        final var bytes = BinaryGameStateSerializer.toByteArray(createGameStates(2, "P.G"));
+
+        final var badMagic = bytes.clone();
+        badMagic[0] = 0;
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.loadFrom(ByteBuffer.wrap(badMagic)));
+
+        final var badVersion = bytes.clone();
+        badVersion[5] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.loadFrom(ByteBuffer.wrap(badVersion)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.loadFrom(ByteBuffer.wrap(bytes, 0, bytes.length - 1)));
+    }
+}
@@ -1,5 +1,6 @@
 package hk.ust.cse.comp3021.pa3.util;
 
+import hk.ust.cse.comp3021.pa3.model.BoardLayers;
 import hk.ust.cse.comp3021.pa3.model.Cell;
 import hk.ust.cse.comp3021.pa3.model.GameBoard;
 import hk.ust.cse.comp3021.pa3.model.Position;
@@ -26,4 +27,17 @@ public class GameBoardUtils {
     public static GameBoard createGameBoard(int rows, int cols, Function<Position, Cell> creator) {
         return new GameBoard(rows, cols, createEmptyCellArray(rows, cols, creator));
     }
+
+    /**
+     * Creates a game board from rows of cell characters, as written in puzzle files (e.g. {@code "P.WG"}).
+     */
+    public static GameBoard createGameBoard(String... rows) {
+        final var layers = new byte[rows.length * rows[0].length()];
+        for (int r = 0; r < rows.length; ++r) {
+            for (int c = 0; c < rows[r].length(); ++c) {
+                layers[r * rows[0].length() + c] = GameStateSerializer.fromCellChar(rows[r].charAt(c));
+            }
+        }
+        return new GameBoard(new BoardLayers(rows.length, rows[0].length(), layers));
+    }
 }
@@ -5,8 +5,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -229,6 +233,69 @@ public class GameStateSerializerTest {
         assertNull(((StopCell) gameBoard.getCell(2, 2)).getEntity());
     }
 
+    @Test
+    @Tag("sanity")
+    @DisplayName("Deserialization Test - Memory-Mapped File with CRLF Line Endings")
+    void testDeserializeMappedFile(@TempDir Path tempDir) throws IOException {
+        final var file = tempDir.resolve("crlf.game");
+        Files.writeString(file, String.join("\r\n", "3", "4", " 7 ", "P..W", "MWL.", ".GS.") + "\r\n");
+
+        final var gameStates = GameStateSerializer.loadFrom(file);
+
+        assertEquals(1, gameStates.length);
+        assertEquals(7, gameStates[0].getNumLives());
+
+        final var expected = new byte[]{
+                BoardLayers.STOP | BoardLayers.PLAYER, 0, 0, BoardLayers.WALL,
+                BoardLayers.MINE, BoardLayers.WALL, BoardLayers.EXTRA_LIFE, 0,
+                0, BoardLayers.GEM, BoardLayers.STOP, 0,
+        };
+        final var layers = gameStates[0].getGameBoard().getLayers();
+        assertEquals(3, layers.getNumRows());
+        assertEquals(4, layers.getNumCols());
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(expected[i], layers.get(i));
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Deserialization Test - Buffer Matches Reader")
+    void testDeserializeBufferMatchesReader() throws IOException {
+        final var source = String.join(System.lineSeparator(), "3", "3", "", "P..", "MWL", ".GS");
+
+        final var fromReader = GameStateSerializer.loadFrom(new BufferedReader(new StringReader(source)));
+        final var fromBuffer = GameStateSerializer.loadFrom(
+                ByteBuffer.wrap(source.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(fromReader.length, fromBuffer.length);
+        assertTrue(fromBuffer[0].hasUnlimitedLives());
+        final var expectedLayers = fromReader[0].getGameBoard().getLayers();
+        final var actualLayers = fromBuffer[0].getGameBoard().getLayers();
+        for (int i = 0; i < expectedLayers.size(); ++i) {
+            assertEquals(expectedLayers.get(i), actualLayers.get(i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(
+                ByteBuffer.wrap("3\n3\n\nP..\nMW".getBytes(StandardCharsets.US_ASCII))));
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(
+                ByteBuffer.wrap("x\n3\n\nP..\nMWL\n.GS".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Deserialization Test - Whitespace Inside Integers")
+    void testDeserializeWhitespaceInsideIntegers() {
+        final var board = "\nP..\nMWL\n.GS";
+        assertDoesNotThrow(() -> GameStateSerializer.loadFrom(
+                ByteBuffer.wrap((" 3 \r\n\t3\r\n5 " + board).getBytes(StandardCharsets.US_ASCII))));
+
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(
+                ByteBuffer.wrap(("3\n3\n1 0" + board).getBytes(StandardCharsets.US_ASCII))));
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(
+                ByteBuffer.wrap(("3\n3\n- 5" + board).getBytes(StandardCharsets.US_ASCII))));
+    }
+
     @AfterEach
     void tearDown() throws IOException {
         if (reader != null) {
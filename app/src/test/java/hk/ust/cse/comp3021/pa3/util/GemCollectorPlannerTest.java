@@ -0,0 +1,140 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GemCollectorPlannerTest {
+
+    private GameBoard gameBoard = null;
+    private GameState gameState = null;
+    private GemCollectorPlanner planner = null;
+
+    // P..G
+    // .WM.
+    // G.S.
+    // ..WG
+    private GameBoard createGameBoard() {
+        return GameBoardUtils.createGameBoard(4, 4, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 3)) || pos.equals(new Position(2, 0))
+                    || pos.equals(new Position(3, 3))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(1, 1)) || pos.equals(new Position(3, 2))) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(1, 2))) {
+                return new EntityCell(pos, new Mine());
+            } else if (pos.equals(new Position(2, 2))) {
+                return new StopCell(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Planner - Collect All Gems")
+    void testCollectAllGems() {
+        gameBoard = createGameBoard();
+        gameState = new GameState(gameBoard, 1);
+        planner = new GemCollectorPlanner(gameState);
+        final var controller = gameState.getGameBoardController();
+
+        var numMoves = 0;
+        while (!gameState.noGemsLeft()) {
+            final var direction = planner.nextDirection();
+            assertNotNull(direction);
+
+            final var result = controller.makeMove(direction);
+            assertTrue(result instanceof MoveResult.Valid.Alive);
+            assertTrue(++numMoves <= 6);
+        }
+
+        assertNull(planner.nextDirection());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Planner - Replan after Board Changed")
+    void testReplan() {
+        gameBoard = createGameBoard();
+        gameState = new GameState(gameBoard, 1);
+        planner = new GemCollectorPlanner(gameState);
+        final var controller = gameState.getGameBoardController();
+
+        assertNotNull(planner.nextDirection());
+
+        // Collect a gem and move the player behind the back of the planner
+        gameBoard.getEntityCell(0, 3).setEntity(null);
+        gameBoard.getEntityCell(2, 1).setEntity(gameBoard.getPlayer());
+
+        var numMoves = 0;
+        while (!gameState.noGemsLeft()) {
+            final var direction = planner.nextDirection();
+            assertNotNull(direction);
+
+            final var result = controller.makeMove(direction);
+            assertTrue(result instanceof MoveResult.Valid.Alive);
+            assertTrue(++numMoves <= 6);
+        }
+    }
+
+    // P.M.G
+    @Test
+    @Tag("sanity")
+    @DisplayName("Planner - No Safe Route")
+    void testNoSafeRoute() {
+        gameBoard = GameBoardUtils.createGameBoard(1, 5, (pos) -> {
+            if (pos.col() == 0) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == 2) {
+                return new EntityCell(pos, new Mine());
+            } else if (pos.col() == 4) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        gameState = new GameState(gameBoard, 1);
+        planner = new GemCollectorPlanner(gameState);
+
+        assertNull(planner.nextDirection());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Planner - Too Many Gems for an Exact Plan")
+    void testManyGems() {
+        final var numGems = 2 * GemCollectorPlanner.MAX_EXACT_GEMS;
+        gameBoard = GameBoardUtils.createGameBoard(
+                "P" + "G".repeat(numGems / 2 - 1) + ".",
+                "G".repeat(numGems / 2 + 1)
+        );
+        gameState = new GameState(gameBoard, 1);
+        planner = new GemCollectorPlanner(gameState);
+        final var controller = gameState.getGameBoardController();
+
+        var numMoves = 0;
+        while (!gameState.noGemsLeft()) {
+            final var direction = planner.nextDirection();
+            assertNotNull(direction);
+
+            final var result = controller.makeMove(direction);
+            assertTrue(result instanceof MoveResult.Valid.Alive);
+            assertTrue(++numMoves <= 4);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        planner = null;
+        gameState = null;
+        gameBoard = null;
+    }
+}
@@ -0,0 +1,58 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveEvaluatorTest {
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Evaluator - Look Ahead for Gems")
+    void testLookAhead() {
+        // The gem is two moves away, through the right side
+        final var gameBoard = GameBoardUtils.createGameBoard(
+                "S.P..",
+                "W.WW.",
+                "..M.G"
+        );
+        final var gameState = new GameState(gameBoard, gameBoard.getPlayer(), 1);
+
+        final var pool = new ForkJoinPool(2);
+        try {
+            for (int plies = 1; plies <= 5; ++plies) {
+                final var evaluator = new MoveEvaluator(plies, pool);
+                assertEquals(Direction.RIGHT, evaluator.bestDirection(gameState));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // The game board is not mutated by the evaluation
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(new Position(0, 2), gameState.getPlayer().getOwner().getPosition());
+        assertThrows(IllegalArgumentException.class, () -> new MoveEvaluator(0, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Move Evaluator - No Safe Move")
+    void testNoSafeMove() {
+        final var gameBoard = GameBoardUtils.createGameBoard(
+                "PMG"
+        );
+        final var gameState = new GameState(gameBoard, gameBoard.getPlayer(), 1);
+        final var evaluator = new MoveEvaluator();
+
+        assertNull(evaluator.bestDirection(gameState));
+
+        final var snapshot = gameBoard.snapshot();
+        assertFalse(snapshot.canMove(0, Direction.RIGHT));
+        assertFalse(snapshot.canMove(0, Direction.LEFT));
+    }
+}
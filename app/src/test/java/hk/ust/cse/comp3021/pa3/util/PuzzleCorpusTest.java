@@ -0,0 +1,146 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuzzleCorpusTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Puzzle files of the corpus, keyed by their relative paths.
+     */
+    private static final Map<String, String> FILES = Map.of(
+            "a.game", String.join("\n", "1", "3", "", "P.G"),
+            "nested/b.game", String.join("\n", "2", "3", "3", "P.G", "..P"),
+            "nested/unreachable.game", String.join("\n", "1", "3", "", "PWG"),
+            "malformed.game", String.join("\n", "2", "3", "", "P.G"),
+            "nested/readme.txt", "not a puzzle"
+    );
+
+    private static Map<String, Boolean> loadAll(final Path source, final Function<Path, String> nameOf)
+            throws IOException {
+        final var pool = new ForkJoinPool(2);
+        try (var results = PuzzleCorpus.load(source, pool)) {
+            return results.collect(Collectors.toMap(
+                    result -> nameOf.apply(result.file()),
+                    result -> result instanceof PuzzleCorpus.Loaded
+            ));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertCorpusResults(final Map<String, Boolean> results) {
+        assertEquals(Map.of(
+                "a.game", true,
+                "nested/b.game", true,
+                "nested/unreachable.game", false,
+                "malformed.game", false
+        ), results);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Corpus - Directory with Per-File Errors")
+    void testLoadDirectory() throws IOException {
+        for (final var entry : FILES.entrySet()) {
+            final var file = tempDir.resolve(entry.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, entry.getValue());
+        }
+
+        assertCorpusResults(loadAll(tempDir, file -> tempDir.relativize(file).toString().replace('\\', '/')));
+
+        try (var results = PuzzleCorpus.load(tempDir.resolve("nested/b.game"))) {
+            final var loaded = (PuzzleCorpus.Loaded) results.findFirst().orElseThrow();
+            assertEquals(2, loaded.gameStates().length);
+            assertEquals(3, loaded.gameStates()[0].getNumLives());
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Corpus - ZIP Archive")
+    void testLoadArchive() throws IOException {
+        final var archive = tempDir.resolve("corpus.zip");
+        try (var out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (final var entry : FILES.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue().getBytes(StandardCharsets.US_ASCII));
+                out.closeEntry();
+            }
+        }
+
+        // Paths in the archive are absolute, e.g. "/nested/b.game"
+        final var results = loadAll(archive, file -> file.toString().substring(1));
+        assertCorpusResults(results);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Corpus - Missing Path or Non-Archive File")
+    void testLoadInvalidSource() throws IOException {
+        final var missing = tempDir.resolve("missing.zip");
+        assertThrows(NoSuchFileException.class, () -> PuzzleCorpus.load(missing));
+
+        final var notArchive = tempDir.resolve("notes.txt");
+        Files.writeString(notArchive, "not a puzzle");
+        final var e = assertThrows(IOException.class, () -> PuzzleCorpus.load(notArchive));
+        assertFalse(e instanceof NoSuchFileException);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Corpus - Bounded Number of Files in Flight")
+    void testBoundedInFlight() throws IOException {
+        final var numFiles = 50;
+        final var maxInFlight = 3;
+        for (int i = 0; i < numFiles; ++i) {
+            Files.writeString(tempDir.resolve(i + ".game"), FILES.get("a.game"));
+        }
+
+        final var pool = new ForkJoinPool(2);
+        final var numSubmitted = new AtomicInteger();
+        final Executor executor = task -> {
+            numSubmitted.incrementAndGet();
+            pool.execute(task);
+        };
+        try (var results = PuzzleCorpus.load(tempDir, executor, maxInFlight)) {
+            final var iterator = results.iterator();
+            assertEquals(maxInFlight, numSubmitted.get());
+
+            var numTaken = 0;
+            while (iterator.hasNext()) {
+                assertTrue(iterator.next() instanceof PuzzleCorpus.Loaded);
+                ++numTaken;
+                assertTrue(numSubmitted.get() <= numTaken + maxInFlight);
+            }
+            assertEquals(numFiles, numTaken);
+            assertEquals(numFiles, numSubmitted.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> PuzzleCorpus.load(tempDir, pool, 0));
+    }
+}
@@ -0,0 +1,111 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuzzleSolverTest {
+
+    /**
+     * Replays a solution, asserting that every move is alive and that all gems are collected at the end.
+     */
+    private static void assertSolves(final GameBoard gameBoard, final PuzzleSolver.Solution solution) {
+        final var gameState = new GameState(gameBoard, gameBoard.getPlayer(), 1);
+        final var gameController = new GameController(gameState);
+        for (final var direction : solution.directions()) {
+            assertTrue(gameController.processMove(direction) instanceof MoveResult.Valid.Alive);
+        }
+        assertTrue(gameState.noGemsLeft());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Solver - Optimal Solution")
+    void testOptimalSolution() {
+        final var gameBoard = GameBoardUtils.createGameBoard("G.P.G");
+        final var solution = new PuzzleSolver(gameBoard, gameBoard.getPlayer()).solve(10).orElseThrow();
+
+        // The starting cell of the player is a stop cell, so collecting the gem on the right takes two moves
+        assertTrue(solution.optimal());
+        assertEquals(3, solution.numMoves());
+        assertSolves(gameBoard, solution);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Solver - Avoid Mines and Respect Move Budget")
+    void testMinesAndBudget() {
+        final var rows = new String[]{
+                "P..G",
+                ".WM.",
+                "G.S.",
+                "..WG"
+        };
+        final var pool = new ForkJoinPool(2);
+        try {
+            final var gameBoard = GameBoardUtils.createGameBoard(rows);
+            final var solver = new PuzzleSolver(gameBoard, gameBoard.getPlayer());
+            final var solution = solver.solve(20, pool).orElseThrow();
+            assertTrue(solution.optimal());
+            assertSolves(gameBoard, solution);
+
+            assertEquals(solution.numMoves(), solver.solve(solution.numMoves(), pool).orElseThrow().numMoves());
+            assertTrue(solver.solve(solution.numMoves() - 1, pool).isEmpty());
+
+            // The greedy fallback also solves the board, but may not be optimal
+            final var otherBoard = GameBoardUtils.createGameBoard(rows);
+            final var greedy = new PuzzleSolver(otherBoard, otherBoard.getPlayer(), 1).solve(20, pool).orElseThrow();
+            assertFalse(greedy.optimal());
+            assertTrue(greedy.numMoves() >= solution.numMoves());
+            assertSolves(otherBoard, greedy);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Solver - Parallel Search is Deterministic")
+    void testParallelSearch() {
+        // Some depths of the search have more states than GemSearch.SPLIT_THRESHOLD, so they are split into tasks
+        final var gameBoard = GameBoardUtils.createGameBoard(
+                "P.S.G.S.G.",
+                ".G.S.G.S.G",
+                "S.G.S.G.S.",
+                ".S.G.S.G.S"
+        );
+        final var parallelPool = new ForkJoinPool(4);
+        final var sequentialPool = new ForkJoinPool(1);
+        try {
+            final var solver = new PuzzleSolver(gameBoard, gameBoard.getPlayer());
+            final var solution = solver.solve(50, parallelPool).orElseThrow();
+            assertTrue(solution.optimal());
+            assertEquals(solution, solver.solve(50, sequentialPool).orElseThrow());
+            assertSolves(gameBoard, solution);
+        } finally {
+            parallelPool.shutdown();
+            sequentialPool.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Puzzle Solver - Other Players Block Moves")
+    void testOtherPlayers() {
+        final var gameBoard = GameBoardUtils.createGameBoard("P.P.G");
+        final var players = gameBoard.getPlayers();
+
+        assertTrue(new PuzzleSolver(gameBoard, players.get(0)).solve(10).isEmpty());
+        assertEquals(List.of(Direction.RIGHT),
+                new PuzzleSolver(gameBoard, players.get(1)).solve(10).orElseThrow().directions());
+        assertThrows(IllegalArgumentException.class,
+                () -> new PuzzleSolver(gameBoard, new Player()));
+    }
+}
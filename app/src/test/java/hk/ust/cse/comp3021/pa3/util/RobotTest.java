@@ -0,0 +1,114 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RobotTest {
+
+    private Generator<Long> prevTimeIntervalGenerator = null;
+
+    @BeforeEach
+    void setUp() {
+        prevTimeIntervalGenerator = Robot.timeIntervalGenerator;
+        Robot.timeIntervalGenerator = TimeIntervalGenerator.veryFast();
+    }
+
+    // P.G
+    private static GameState createGameState() {
+        final var gameBoard = GameBoardUtils.createGameBoard(1, 3, (pos) -> {
+            if (pos.col() == 0) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == 2) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        return new GameState(gameBoard);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Delegation - No Moves after Stop")
+    void testStopDelegation() throws InterruptedException {
+        final var robot = new Robot(createGameState());
+        final var numMoves = new AtomicInteger();
+        final var latch = new CountDownLatch(3);
+
+        robot.startDelegation((direction) -> {
+            numMoves.incrementAndGet();
+            latch.countDown();
+        });
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+
+        robot.stopDelegation();
+        final var numMovesAfterStop = numMoves.get();
+
+        Thread.sleep(100);
+        assertEquals(numMovesAfterStop, numMoves.get());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Delegation - Many Robots")
+    void testManyRobots() throws InterruptedException {
+        final var numRobots = 500;
+        final var robots = new ArrayList<Robot>();
+        final var latch = new CountDownLatch(numRobots);
+
+        for (int i = 0; i < numRobots; ++i) {
+            final var robot = new Robot(createGameState());
+            final var moved = new AtomicInteger();
+            robot.startDelegation((direction) -> {
+                if (moved.getAndIncrement() == 0) {
+                    latch.countDown();
+                }
+            });
+            robots.add(robot);
+        }
+
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } finally {
+            robots.forEach(Robot::stopDelegation);
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Delegation - Keep Moving after a Failing Move")
+    void testFailingMove() throws InterruptedException {
+        final var robot = new Robot(createGameState());
+        final var numMoves = new AtomicInteger();
+        final var latch = new CountDownLatch(2);
+
+        robot.startDelegation((direction) -> {
+            if (numMoves.getAndIncrement() == 0) {
+                throw new IllegalStateException("Expected failure of the first move");
+            }
+            latch.countDown();
+        });
+
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } finally {
+            robot.stopDelegation();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        Robot.timeIntervalGenerator = prevTimeIntervalGenerator;
+    }
+}